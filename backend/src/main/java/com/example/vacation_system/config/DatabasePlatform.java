@@ -0,0 +1,33 @@
+package com.example.vacation_system.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Rodzaj bazy danych, odczytany raz przy starcie - pozwala wybrać zapytania natywne PostgreSQL
+ * z przenośnym odpowiednikiem dla pozostałych baz (np. H2 w testach)
+ */
+@Component
+public class DatabasePlatform {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void init() throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.vacation_system.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Ustawia w PostgreSQL sekwencje identyfikatorów ponad największym istniejącym id tabeli.
+ * Tabele utworzone wcześniej z kolumnami IDENTITY mają już wiersze, a sekwencja dodana przez
+ * Hibernate startuje od 1. Nigdy nie cofa sekwencji - przy każdym starcie pomija co najwyżej jedną pulę.
+ * <p>
+ * Wyrównanie działa przy tworzeniu kontekstu: po aktualizacji schematu przez Hibernate (zależność
+ * od EntityManagerFactory), ale zanim serwer WWW i ApplicationRunner-y wykonają pierwszy INSERT.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    // sekwencja -> tabela
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "vacation_requests_seq", "vacation_requests",
+            "users_seq", "users");
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Sekwencje tworzy Hibernate przy budowie fabryki - wyrównanie dopiero po niej
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void alignSequences() {
+        if (!databasePlatform.isPostgres()) {
+            return;
+        }
+
+        SEQUENCES.forEach((sequence, table) -> jdbcTemplate.queryForObject(
+                "SELECT setval('" + sequence + "', GREATEST(" +
+                        "(SELECT COALESCE(MAX(id), 0) FROM " + table + "), " +
+                        "(SELECT last_value FROM " + sequence + ")))",
+                Long.class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.vacation_system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dodaje w PostgreSQL kolumnę period (daterange wyliczany z dat wniosku) z częściowym indeksem GiST
+ * dla zatwierdzonych urlopów oraz - opcjonalnie - ograniczenie wykluczające nakładające się
+ * zatwierdzone urlopy jednego użytkownika. Inne bazy (np. H2 w testach) są pomijane.
+ */
+@Component
+@Order(0)
+public class VacationPeriodSchemaInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VacationPeriodSchemaInitializer.class);
+
+    private static final String EXCLUSION_CONSTRAINT = "ex_vacation_requests_approved_overlap";
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${vacation.schema.period-index:true}")
+    private boolean periodIndexEnabled;
+
+    @Value("${vacation.schema.exclusion-constraint:false}")
+    private boolean exclusionConstraintEnabled;
+
+    private volatile boolean periodIndexAvailable;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!periodIndexEnabled || !databasePlatform.isPostgres()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE vacation_requests ADD COLUMN IF NOT EXISTS period daterange " +
+                "GENERATED ALWAYS AS (daterange(start_date, end_date, '[]')) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_vacation_requests_approved_period " +
+                "ON vacation_requests USING gist (period) WHERE status = 'APPROVED'");
+        periodIndexAvailable = true;
+
+        if (exclusionConstraintEnabled) {
+            createExclusionConstraint();
+        }
+    }
+
+    /**
+     * Czy kolumna period i indeks GiST są dostępne (PostgreSQL po uruchomieniu inicjalizatora)
+     */
+    public boolean isPeriodIndexAvailable() {
+        return periodIndexAvailable;
+    }
+
+    private void createExclusionConstraint() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname = ?", Integer.class, EXCLUSION_CONSTRAINT);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        try {
+            // btree_gist pozwala łączyć równość user_id z operatorem && w jednym indeksie GiST
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("ALTER TABLE vacation_requests ADD CONSTRAINT " + EXCLUSION_CONSTRAINT +
+                    " EXCLUDE USING gist (user_id WITH =, period WITH &&) WHERE (status = 'APPROVED')");
+        } catch (DataAccessException e) {
+            // Np. brak uprawnień do rozszerzenia lub istniejące nakładające się urlopy
+            log.warn("Nie utworzono ograniczenia {}: {}", EXCLUSION_CONSTRAINT, e.getMostSpecificCause().getMessage());
+        }
+    }
+}
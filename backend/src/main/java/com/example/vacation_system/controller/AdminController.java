@@ -0,0 +1,125 @@
+package com.example.vacation_system.controller;
+
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.service.AbsenceBitmapIndex;
+import com.example.vacation_system.service.AbsenceHeatmapService;
+import com.example.vacation_system.service.ApprovedVacationIndex;
+import com.example.vacation_system.service.BalanceReconciliationService;
+import com.example.vacation_system.service.UserDirectory;
+import com.example.vacation_system.service.VacationExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminController {
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private BalanceReconciliationService balanceReconciliationService;
+
+    @Autowired
+    private VacationExportService vacationExportService;
+
+    @Autowired
+    private ApprovedVacationIndex approvedVacationIndex;
+
+    @Autowired
+    private AbsenceHeatmapService absenceHeatmapService;
+
+    @Autowired
+    private AbsenceBitmapIndex absenceBitmapIndex;
+
+    @Value("${vacation.export.timeout:30m}")
+    private Duration exportTimeout;
+
+    /**
+     * Statystyki cache użytkowników (trafienia/chybienia)
+     */
+    @GetMapping("/caches/user-directory")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getUserDirectoryStats() {
+        return ResponseEntity.ok(userDirectory.getStats());
+    }
+
+    /**
+     * Eksport historii wniosków (CSV lub NDJSON) strumieniowany bez buforowania w pamięci
+     */
+    @GetMapping("/vacations/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportVacations(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) VacationStatus status,
+            HttpServletRequest request) {
+        VacationExportService.Format exportFormat = VacationExportService.Format.parse(format);
+        String fileName = "vacations." + exportFormat.getExtension();
+
+        // Długi limit tylko dla tej odpowiedzi - pozostałe żądania asynchroniczne (logowanie) zachowują domyślny
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+
+        StreamingResponseBody body = outputStream ->
+                vacationExportService.export(outputStream, exportFormat, from, to, status);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Uzgadnia salda użytkowników z tabelą wniosków (poza harmonogramem)
+     */
+    @PostMapping("/balances/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconcileBalances() {
+        int corrected = balanceReconciliationService.reconcile();
+        return ResponseEntity.ok(Map.of("corrected", corrected));
+    }
+
+    /**
+     * Przebudowuje indeks zatwierdzonych urlopów (kalendarz) na podstawie bazy danych
+     */
+    @PostMapping("/vacation-index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildVacationIndex() {
+        int indexed = approvedVacationIndex.rebuild();
+        return ResponseEntity.ok(Map.of("indexed", indexed));
+    }
+
+    /**
+     * Odtwarza tabelę dziennej liczby nieobecności (heatmapa) z zatwierdzonych wniosków
+     */
+    @PostMapping("/heatmap/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildHeatmap() {
+        int days = absenceHeatmapService.rebuild();
+        return ResponseEntity.ok(Map.of("days", days));
+    }
+
+    /**
+     * Przebudowuje bitmapy nieobecności używane przez analizy obsady
+     */
+    @PostMapping("/absence-bitmaps/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildAbsenceBitmaps() {
+        int users = absenceBitmapIndex.rebuild();
+        return ResponseEntity.ok(Map.of("users", users));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.vacation_system.controller;
+
+import com.example.vacation_system.dto.CoverageDayDto;
+import com.example.vacation_system.dto.UserPairOverlapDto;
+import com.example.vacation_system.service.AbsenceAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AnalyticsController {
+
+    @Autowired
+    private AbsenceAnalyticsService absenceAnalyticsService;
+
+    /**
+     * Dni, w których nieobecna jest większa część zespołu niż threshold (np. 0.3 = 30%)
+     */
+    @GetMapping("/coverage")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CoverageDayDto>> getUnderstaffedDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "0.3") double threshold,
+            @RequestParam(required = false) List<Long> userIds) {
+        return ResponseEntity.ok(absenceAnalyticsService.findUnderstaffedDays(from, to, threshold, userIds));
+    }
+
+    /**
+     * Dni, w których nieobecni są jednocześnie wszyscy podani użytkownicy
+     */
+    @GetMapping("/overlap")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<LocalDate>> getSharedAbsenceDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam List<Long> userIds) {
+        return ResponseEntity.ok(absenceAnalyticsService.findSharedAbsenceDays(from, to, userIds));
+    }
+
+    /**
+     * Pary użytkowników z co najmniej minDays wspólnych dni nieobecności
+     */
+    @GetMapping("/overlap/pairs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UserPairOverlapDto>> getOverlappingPairs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "1") int minDays,
+            @RequestParam(required = false) List<Long> userIds) {
+        return ResponseEntity.ok(absenceAnalyticsService.findOverlappingPairs(from, to, minDays, userIds));
+    }
+}
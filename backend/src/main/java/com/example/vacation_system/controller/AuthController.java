@@ -2,24 +2,38 @@ package com.example.vacation_system.controller;
 
 import com.example.vacation_system.dto.JwtResponse;
 import com.example.vacation_system.dto.LoginRequest;
+import com.example.vacation_system.dto.RefreshTokenRequest;
 import com.example.vacation_system.entity.User;
-import com.example.vacation_system.repository.UserRepository;
-
+import com.example.vacation_system.exception.PreparedErrorResponses;
+import com.example.vacation_system.exception.PreparedErrorResponses.PreparedError;
+import com.example.vacation_system.serurity.AccessTokenRevocations;
+import com.example.vacation_system.serurity.AuthenticatedUser;
 import com.example.vacation_system.serurity.JwtUtil;
-import com.example.vacation_system.service.VacationCalculationService;
+import com.example.vacation_system.serurity.LoginExecutor;
+import com.example.vacation_system.serurity.LoginRateLimiter;
+import com.example.vacation_system.serurity.UserPrincipal;
+import com.example.vacation_system.service.RefreshTokenService;
+import com.example.vacation_system.service.UserDirectory;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -30,97 +44,180 @@ public class AuthController {
     private AuthenticationManager authenticationManager;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserDirectory userDirectory;
 
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private LoginExecutor loginExecutor;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AccessTokenRevocations accessTokenRevocations;
 
     @Autowired
-    private VacationCalculationService vacationCalculationService;
+    private PreparedErrorResponses preparedErrorResponses;
 
+    /**
+     * Logowanie - limity prób na adres IP i konto, a weryfikacja hasła na wydzielonej, ograniczonej puli
+     * wątków. Próby ponad limit lub przy pełnej kolejce kończą się od razu odpowiedzią 429.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+                                                                 HttpServletRequest request) {
+        long retryAfter = loginRateLimiter.tryAcquire(request.getRemoteAddr(), loginRequest.getEmail());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(
+                    tooManyRequests(preparedErrorResponses.tooManyLoginAttempts(), retryAfter));
+        }
+
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getEmail(),
-                            loginRequest.getPassword()
-                    )
-            );
-
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userRepository.findByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            String jwt = jwtUtil.generateToken(userDetails, user.getRole().name());
-
-            // Oblicz aktualne wykorzystane dni
-            Integer usedDays = vacationCalculationService.calculateUsedVacationDays(user);
-
-            return ResponseEntity.ok(new JwtResponse(
-                    jwt,
-                    user.getEmail(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getRole(),
-                    user.getTotalVacationDays(),
-                    usedDays
-            ));
-
-        } catch (BadCredentialsException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Nieprawidłowe dane logowania");
-            error.put("message", "Sprawdź email i hasło");
-            return ResponseEntity.badRequest().body(error);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd logowania");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+            return loginExecutor.submit(() -> authenticate(loginRequest));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    tooManyRequests(preparedErrorResponses.loginOverloaded(), 1));
         }
     }
 
-    @GetMapping("/validate")
-    public ResponseEntity<?> validateToken(@RequestHeader("Authorization") String token) {
-        try {
-            if (token.startsWith("Bearer ")) {
-                token = token.substring(7);
-            }
+    /**
+     * Weryfikacja hasła - błędne dane (BadCredentialsException) zamienia na odpowiedź 401 ApiExceptionHandler
+     */
+    private ResponseEntity<?> authenticate(LoginRequest loginRequest) {
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                        loginRequest.getEmail(),
+                        loginRequest.getPassword()
+                )
+        );
+
+        // Konto wczytane przy uwierzytelnianiu - bez ponownego wyszukiwania użytkownika
+        User user = ((AuthenticatedUser) authentication.getPrincipal()).getAccount();
+
+        return ResponseEntity.ok(session(user, refreshTokenService.issue(user)));
+    }
+
+    /**
+     * Odświeżenie sesji - wymienia jednorazowy token odświeżający na nowy token dostępowy
+     * i nowy token odświeżający, bez weryfikacji hasła
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return refreshTokenService.rotate(request.getRefreshToken())
+                .<ResponseEntity<?>>map(rotation -> ResponseEntity.ok(
+                        session(rotation.getUser(), rotation.getRefreshToken())))
+                .orElseGet(() -> preparedErrorResponses.sessionExpired().toResponse());
+    }
 
-            String username = jwtUtil.getUsernameFromToken(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(token, userDetails)) {
-                User user = userRepository.findByEmail(username)
-                        .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("valid", true);
-                response.put("user", new JwtResponse(
-                        token,
-                        user.getEmail(),
-                        user.getFirstName(),
-                        user.getLastName(),
-                        user.getRole(),
-                        user.getTotalVacationDays(),
-                        user.getUsedVacationDays()
-                ));
-
-                return ResponseEntity.ok(response);
-            } else {
-                Map<String, Object> response = new HashMap<>();
-                response.put("valid", false);
-                response.put("message", "Token nieprawidłowy");
-                return ResponseEntity.badRequest().body(response);
+    /**
+     * Wylogowanie - unieważnia token odświeżający oraz bieżący token dostępowy
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest request) {
+        if (request != null && request.getRefreshToken() != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                String tokenId = jwtUtil.parseVerifiedClaims(authorization.substring(7)).getId();
+                if (tokenId != null) {
+                    accessTokenRevocations.revoke(tokenId);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token nieważny lub wygasły - nie ma czego unieważniać
             }
-        } catch (Exception e) {
-            Map<String, Object> response = new HashMap<>();
-            response.put("valid", false);
-            response.put("message", "Błąd walidacji tokenu");
-            return ResponseEntity.badRequest().body(response);
         }
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Wylogowano");
+        return ResponseEntity.ok(response);
+    }
+
+    private JwtResponse session(User user, String refreshToken) {
+        JwtResponse response = new JwtResponse(
+                jwtUtil.generateToken(user),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole(),
+                user.getTotalVacationDays(),
+                user.getUsedVacationDays(),
+                user.getReservedVacationDays()
+        );
+        response.setRefreshToken(refreshToken);
+        return response;
+    }
+
+    private static ResponseEntity<?> tooManyRequests(PreparedError error, long retryAfterSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return error.toResponse(headers);
+    }
+
+    /**
+     * Sprawdza token i zwraca profil użytkownika. Token weryfikuje już filtr JWT, więc odpowiedź
+     * powstaje z kontekstu bezpieczeństwa i profilu z cache (baza tylko przy chybieniu cache).
+     * ETag pozwala klientowi z aktualnym profilem otrzymać 304 bez treści.
+     */
+    @GetMapping("/validate")
+    public ResponseEntity<?> validateToken(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                           ServletWebRequest webRequest) {
+        Optional<User> account = authenticatedAccount(SecurityContextHolder.getContext().getAuthentication());
+        if (account.isEmpty() || authorization == null || !authorization.startsWith("Bearer ")) {
+            // 401 pozwala klientowi odświeżyć wygasły token dostępowy i ponowić sprawdzenie
+            return preparedErrorResponses.invalidToken().toResponse();
+        }
+
+        User user = account.get();
+        String token = authorization.substring(7);
+
+        // Profil i saldo użytkownika oraz sam token - zmiana któregokolwiek daje nowy ETag
+        String etag = "\"" + user.getId() + "-" + user.getVersion() + "-" + user.getUsedVacationDays() + "-"
+                + user.getReservedVacationDays() + "-" + Integer.toHexString(token.hashCode()) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("valid", true);
+        response.put("user", new JwtResponse(
+                token,
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getRole(),
+                user.getTotalVacationDays(),
+                user.getUsedVacationDays(),
+                user.getReservedVacationDays()
+        ));
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(response);
+    }
+
+    /**
+     * Konto zalogowanego użytkownika: z uwierzytelnienia bazodanowego wprost,
+     * z uwierzytelnienia przez claims - z cache użytkowników po id
+     */
+    private Optional<User> authenticatedAccount(Authentication authentication) {
+        Object principal = authentication != null ? authentication.getPrincipal() : null;
+        if (principal instanceof AuthenticatedUser authenticated) {
+            return Optional.of(authenticated.getAccount());
+        }
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userDirectory.findById(userPrincipal.getId()).filter(user -> Boolean.TRUE.equals(user.getActive()));
+        }
+        return Optional.empty();
     }
 }
\ No newline at end of file
@@ -1,17 +1,25 @@
 package com.example.vacation_system.controller;
 
 import com.example.vacation_system.dto.CreateUserRequest;
+import com.example.vacation_system.dto.CursorPage;
 import com.example.vacation_system.dto.UserDto;
+import com.example.vacation_system.dto.UserImportReport;
+import com.example.vacation_system.entity.Role;
 import com.example.vacation_system.entity.User;
+import com.example.vacation_system.exception.NotFoundException;
+import com.example.vacation_system.serurity.CurrentUser;
+import com.example.vacation_system.service.UserImportService;
 import com.example.vacation_system.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +32,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
     /**
      * Pobiera wszystkich użytkowników (tylko admin)
      */
@@ -34,6 +45,19 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Pobiera stronę użytkowników - stronicowanie kursorem (tylko admin)
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<UserDto>> getUserPage(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size,
+                                         @RequestParam(required = false) Role role,
+                                         @RequestParam(required = false) Boolean active) {
+        CursorPage<UserDto> page = userService.getUserPage(cursor, size, role, active);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Pobiera aktywnych pracowników (admin i pracownicy)
      */
@@ -49,22 +73,9 @@ public class UserController {
      */
     @GetMapping("/me")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<?> getCurrentUser(Authentication authentication) {
-        try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userService.getUserByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            UserDto userDto = userService.getUserById(user.getId())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            return ResponseEntity.ok(userDto);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd pobierania danych użytkownika");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<UserDto> getCurrentUser(@CurrentUser User user) {
+        UserDto userDto = userService.getUserDto(user);
+        return ResponseEntity.ok(userDto);
     }
 
     /**
@@ -72,17 +83,10 @@ public class UserController {
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
-        try {
-            UserDto user = userService.getUserById(id)
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-            return ResponseEntity.ok(user);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Użytkownik nie znaleziony");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
+        UserDto user = userService.getUserById(id)
+                .orElseThrow(() -> new NotFoundException("Użytkownik nie znaleziony"));
+        return ResponseEntity.ok(user);
     }
 
     /**
@@ -90,21 +94,33 @@ public class UserController {
      */
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> createUser(@Valid @RequestBody CreateUserRequest request) {
-        try {
-            UserDto newUser = userService.createUser(request);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Użytkownik został utworzony pomyślnie");
-            response.put("user", newUser);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd tworzenia użytkownika");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+    public ResponseEntity<Map<String, Object>> createUser(@Valid @RequestBody CreateUserRequest request) {
+        UserDto newUser = userService.createUser(request);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Użytkownik został utworzony pomyślnie");
+        response.put("user", newUser);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Importuje użytkowników z pliku CSV (tylko admin) - raport z błędami poszczególnych wierszy
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+        UserImportReport report;
+        try (InputStream input = file.getInputStream()) {
+            report = userImportService.importCsv(input);
         }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Zaimportowano " + report.getImported() + " z " + report.getTotalRows()
+                + " użytkowników");
+        response.put("report", report);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -112,21 +128,14 @@ public class UserController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto) {
-        try {
-            UserDto updatedUser = userService.updateUser(id, userDto);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Użytkownik został zaktualizowany pomyślnie");
-            response.put("user", updatedUser);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd aktualizacji użytkownika");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<Map<String, Object>> updateUser(@PathVariable Long id, @Valid @RequestBody UserDto userDto) {
+        UserDto updatedUser = userService.updateUser(id, userDto);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Użytkownik został zaktualizowany pomyślnie");
+        response.put("user", updatedUser);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -134,22 +143,15 @@ public class UserController {
      */
     @PatchMapping("/{id}/toggle-status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> toggleUserStatus(@PathVariable Long id) {
-        try {
-            UserDto updatedUser = userService.toggleUserStatus(id);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", updatedUser.getActive() ?
-                    "Użytkownik został aktywowany" : "Użytkownik został dezaktywowany");
-            response.put("user", updatedUser);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd zmiany statusu użytkownika");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<Map<String, Object>> toggleUserStatus(@PathVariable Long id) {
+        UserDto updatedUser = userService.toggleUserStatus(id);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", updatedUser.getActive() ?
+                "Użytkownik został aktywowany" : "Użytkownik został dezaktywowany");
+        response.put("user", updatedUser);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -157,19 +159,12 @@ public class UserController {
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> deleteUser(@PathVariable Long id) {
-        try {
-            userService.deleteUser(id);
-
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "Użytkownik został usunięty pomyślnie");
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd usuwania użytkownika");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<Map<String, String>> deleteUser(@PathVariable Long id) {
+        userService.deleteUser(id);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Użytkownik został usunięty pomyślnie");
+
+        return ResponseEntity.ok(response);
     }
 }
@@ -1,18 +1,23 @@
 package com.example.vacation_system.controller;
 
+import com.example.vacation_system.dto.BulkVacationStatusRequest;
+import com.example.vacation_system.dto.BulkVacationStatusResult;
+import com.example.vacation_system.dto.CalendarMatrixDto;
+import com.example.vacation_system.dto.CursorPage;
 import com.example.vacation_system.dto.VacationRequestDto;
 import com.example.vacation_system.dto.VacationStatusRequest;
 import com.example.vacation_system.entity.User;
 import com.example.vacation_system.entity.VacationStatus;
-import com.example.vacation_system.service.UserService;
+import com.example.vacation_system.exception.ForbiddenException;
+import com.example.vacation_system.exception.NotFoundException;
+import com.example.vacation_system.serurity.CurrentUser;
+import com.example.vacation_system.service.AbsenceHeatmapService;
 import com.example.vacation_system.service.VacationService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -29,18 +34,14 @@ public class VacationController {
     private VacationService vacationService;
 
     @Autowired
-    private UserService userService;
+    private AbsenceHeatmapService absenceHeatmapService;
 
     /**
      * Pobiera wszystkie wnioski urlopowe (admin) lub własne (employee)
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<List<VacationRequestDto>> getVacationRequests(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        User user = userService.getUserByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
+    public ResponseEntity<List<VacationRequestDto>> getVacationRequests(@CurrentUser User user) {
         List<VacationRequestDto> vacations;
 
         // Admin widzi wszystkie wnioski, pracownik tylko swoje
@@ -53,6 +54,27 @@ public class VacationController {
         return ResponseEntity.ok(vacations);
     }
 
+    /**
+     * Pobiera stronę wniosków (stronicowanie kursorem) - admin wszystkie, pracownik tylko własne
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    public ResponseEntity<CursorPage<VacationRequestDto>> getVacationRequestPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) VacationStatus status,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @CurrentUser User user) {
+        // Pracownik widzi tylko swoje wnioski niezależnie od przekazanego filtra
+        Long effectiveUserId = user.getRole().name().equals("ADMIN") ? userId : user.getId();
+
+        CursorPage<VacationRequestDto> page = vacationService.getVacationRequestPage(
+                cursor, size, status, effectiveUserId, from, to);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * Pobiera wnioski o określonym statusie (tylko admin)
      */
@@ -68,30 +90,16 @@ public class VacationController {
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<?> getVacationRequestById(@PathVariable Long id, Authentication authentication) {
-        try {
-            VacationRequestDto vacation = vacationService.getVacationRequestById(id)
-                    .orElseThrow(() -> new RuntimeException("Wniosek urlopowy nie znaleziony"));
-
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userService.getUserByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            // Sprawdź uprawnienia - admin może wszystko, pracownik tylko swoje wnioski
-            if (!user.getRole().name().equals("ADMIN") && !vacation.getUserId().equals(user.getId())) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "Brak uprawnień");
-                error.put("message", "Możesz przeglądać tylko własne wnioski");
-                return ResponseEntity.status(403).body(error);
-            }
-
-            return ResponseEntity.ok(vacation);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Wniosek nie znaleziony");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
+    public ResponseEntity<VacationRequestDto> getVacationRequestById(@PathVariable Long id, @CurrentUser User user) {
+        VacationRequestDto vacation = vacationService.getVacationRequestById(id)
+                .orElseThrow(() -> new NotFoundException("Wniosek urlopowy nie znaleziony"));
+
+        // Sprawdź uprawnienia - admin może wszystko, pracownik tylko swoje wnioski
+        if (!user.getRole().name().equals("ADMIN") && !vacation.getUserId().equals(user.getId())) {
+            throw new ForbiddenException("Możesz przeglądać tylko własne wnioski");
         }
+
+        return ResponseEntity.ok(vacation);
     }
 
     /**
@@ -99,26 +107,15 @@ public class VacationController {
      */
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<?> createVacationRequest(@Valid @RequestBody VacationRequestDto requestDto,
-                                                   Authentication authentication) {
-        try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userService.getUserByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            VacationRequestDto newVacation = vacationService.createVacationRequest(user, requestDto);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Wniosek urlopowy został złożony pomyślnie");
-            response.put("vacation", newVacation);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd składania wniosku");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<Map<String, Object>> createVacationRequest(@Valid @RequestBody VacationRequestDto requestDto,
+                                                   @CurrentUser User user) {
+        VacationRequestDto newVacation = vacationService.createVacationRequest(user, requestDto);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Wniosek urlopowy został złożony pomyślnie");
+        response.put("vacation", newVacation);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -126,27 +123,33 @@ public class VacationController {
      */
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> updateVacationStatus(@PathVariable Long id,
+    public ResponseEntity<Map<String, Object>> updateVacationStatus(@PathVariable Long id,
                                                   @Valid @RequestBody VacationStatusRequest statusRequest,
-                                                  Authentication authentication) {
-        try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User admin = userService.getUserByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Administrator nie znaleziony"));
-
-            VacationRequestDto updatedVacation = vacationService.updateVacationStatus(id, statusRequest, admin);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Status wniosku został zaktualizowany pomyślnie");
-            response.put("vacation", updatedVacation);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd aktualizacji statusu");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+                                                  @CurrentUser User admin) {
+        VacationRequestDto updatedVacation = vacationService.updateVacationStatus(id, statusRequest, admin);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Status wniosku został zaktualizowany pomyślnie");
+        response.put("vacation", updatedVacation);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Zmienia status wielu wniosków naraz (tylko admin) - wynik osobno dla każdego wniosku
+     */
+    @PutMapping("/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> updateVacationStatuses(@Valid @RequestBody BulkVacationStatusRequest bulkRequest,
+                                                    @CurrentUser User admin) {
+        List<BulkVacationStatusResult> results = vacationService.updateVacationStatuses(bulkRequest, admin);
+        long updated = results.stream().filter(BulkVacationStatusResult::isSuccess).count();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Zaktualizowano status " + updated + " z " + results.size() + " wniosków");
+        response.put("results", results);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -154,25 +157,14 @@ public class VacationController {
      */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
-    public ResponseEntity<?> cancelVacationRequest(@PathVariable Long id, Authentication authentication) {
-        try {
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            User user = userService.getUserByEmail(userDetails.getUsername())
-                    .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
-
-            VacationRequestDto cancelledVacation = vacationService.cancelVacationRequest(id, user);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("message", "Wniosek urlopowy został anulowany pomyślnie");
-            response.put("vacation", cancelledVacation);
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Błąd anulowania wniosku");
-            error.put("message", e.getMessage());
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<Map<String, Object>> cancelVacationRequest(@PathVariable Long id, @CurrentUser User user) {
+        VacationRequestDto cancelledVacation = vacationService.cancelVacationRequest(id, user);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Wniosek urlopowy został anulowany pomyślnie");
+        response.put("vacation", cancelledVacation);
+
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -188,6 +180,41 @@ public class VacationController {
         return ResponseEntity.ok(approvedVacations);
     }
 
+    /**
+     * Liczba dni roboczych w okresie (podgląd w formularzu wniosku)
+     */
+    @GetMapping("/working-days")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    public ResponseEntity<Map<String, Object>> getWorkingDays(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("workingDays", vacationService.calculateDays(startDate, endDate));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Liczba nieobecnych w kolejnych dniach okresu [from, to] (mapa obłożenia kalendarza)
+     */
+    @GetMapping("/heatmap")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    public ResponseEntity<int[]> getAbsenceHeatmap(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(absenceHeatmapService.getHeatmap(from, to));
+    }
+
+    /**
+     * Kalendarz zespołu w postaci zwartej: lista użytkowników i serie ich nieobecności w okresie [from, to]
+     */
+    @GetMapping("/calendar/matrix")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    public ResponseEntity<CalendarMatrixDto> getVacationCalendarMatrix(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(vacationService.getCalendarMatrix(from, to));
+    }
+
     /**
      * Pobiera zatwierdzone urlopy na konkretny dzień
      */
@@ -199,4 +226,4 @@ public class VacationController {
         List<VacationRequestDto> vacationsOnDate = vacationService.getApprovedVacationsOnDate(date);
         return ResponseEntity.ok(vacationsOnDate);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.example.vacation_system.dto;
+
+import com.example.vacation_system.entity.VacationStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkVacationStatusRequest {
+
+    @NotEmpty(message = "Lista wniosków jest wymagana")
+    @Size(max = 500, message = "Jednorazowo można zmienić status najwyżej 500 wniosków")
+    private List<Long> ids;
+
+    @NotNull(message = "Status jest wymagany")
+    private VacationStatus status;
+
+    private String adminComment;
+
+    // Konstruktory
+    public BulkVacationStatusRequest() {}
+
+    public BulkVacationStatusRequest(List<Long> ids, VacationStatus status, String adminComment) {
+        this.ids = ids;
+        this.status = status;
+        this.adminComment = adminComment;
+    }
+
+    // Gettery i settery
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public VacationStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(VacationStatus status) {
+        this.status = status;
+    }
+
+    public String getAdminComment() {
+        return adminComment;
+    }
+
+    public void setAdminComment(String adminComment) {
+        this.adminComment = adminComment;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.vacation_system.dto;
+
+/**
+ * Wynik zmiany statusu jednego wniosku w decyzji zbiorczej
+ */
+public class BulkVacationStatusResult {
+
+    private Long id;
+    private boolean success;
+    private String message;
+    private VacationRequestDto vacation;
+
+    // Konstruktory
+    public BulkVacationStatusResult() {}
+
+    public BulkVacationStatusResult(Long id, boolean success, String message, VacationRequestDto vacation) {
+        this.id = id;
+        this.success = success;
+        this.message = message;
+        this.vacation = vacation;
+    }
+
+    public static BulkVacationStatusResult success(VacationRequestDto vacation) {
+        return new BulkVacationStatusResult(vacation.getId(), true, null, vacation);
+    }
+
+    public static BulkVacationStatusResult failure(Long id, String message) {
+        return new BulkVacationStatusResult(id, false, message, null);
+    }
+
+    // Gettery i settery
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public VacationRequestDto getVacation() {
+        return vacation;
+    }
+
+    public void setVacation(VacationRequestDto vacation) {
+        this.vacation = vacation;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.vacation_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Kalendarz zespołu jako macierz użytkownicy × dni. Każdy użytkownik występuje raz,
+ * a jego nieobecności zakodowane są długością serii: runs = [przesunięcie, długość, przesunięcie, długość, ...],
+ * gdzie przesunięcie liczone jest w dniach od daty from.
+ */
+public class CalendarMatrixDto {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate from;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate to;
+
+    private List<UserRuns> users;
+
+    // Konstruktory
+    public CalendarMatrixDto() {}
+
+    public CalendarMatrixDto(LocalDate from, LocalDate to, List<UserRuns> users) {
+        this.from = from;
+        this.to = to;
+        this.users = users;
+    }
+
+    // Gettery i settery
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<UserRuns> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<UserRuns> users) {
+        this.users = users;
+    }
+
+    /**
+     * Wiersz macierzy - użytkownik i serie jego nieobecności
+     */
+    public static class UserRuns {
+
+        private Long id;
+        private String fullName;
+        private int[] runs;
+
+        public UserRuns() {}
+
+        public UserRuns(Long id, String fullName, int[] runs) {
+            this.id = id;
+            this.fullName = fullName;
+            this.runs = runs;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getFullName() {
+            return fullName;
+        }
+
+        public void setFullName(String fullName) {
+            this.fullName = fullName;
+        }
+
+        public int[] getRuns() {
+            return runs;
+        }
+
+        public void setRuns(int[] runs) {
+            this.runs = runs;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.vacation_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Dzień, w którym nieobecna jest zbyt duża część zespołu
+ */
+public class CoverageDayDto {
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    private int absent;
+    private int teamSize;
+    private double absentRatio;
+
+    // Konstruktory
+    public CoverageDayDto() {}
+
+    public CoverageDayDto(LocalDate date, int absent, int teamSize) {
+        this.date = date;
+        this.absent = absent;
+        this.teamSize = teamSize;
+        this.absentRatio = teamSize > 0 ? (double) absent / teamSize : 0;
+    }
+
+    // Gettery i settery
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getAbsent() {
+        return absent;
+    }
+
+    public void setAbsent(int absent) {
+        this.absent = absent;
+    }
+
+    public int getTeamSize() {
+        return teamSize;
+    }
+
+    public void setTeamSize(int teamSize) {
+        this.teamSize = teamSize;
+    }
+
+    public double getAbsentRatio() {
+        return absentRatio;
+    }
+
+    public void setAbsentRatio(double absentRatio) {
+        this.absentRatio = absentRatio;
+    }
+}
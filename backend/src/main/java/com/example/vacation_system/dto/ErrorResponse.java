@@ -0,0 +1,32 @@
+package com.example.vacation_system.dto;
+
+public class ErrorResponse {
+
+    private String error;
+    private String message;
+
+    // Konstruktory
+    public ErrorResponse() {}
+
+    public ErrorResponse(String error, String message) {
+        this.error = error;
+        this.message = message;
+    }
+
+    // Gettery i settery
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
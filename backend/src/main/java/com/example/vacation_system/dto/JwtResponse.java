@@ -7,19 +7,22 @@ public class JwtResponse {
 
     private String token;
     private String type = "Bearer";
+    private String refreshToken;
     private String email;
     private String firstName;
     private String lastName;
     private Role role;
     private Integer totalVacationDays;
     private Integer usedVacationDays;
+    private Integer reservedVacationDays;
     private Integer availableVacationDays;
 
     // Konstruktory
     public JwtResponse() {}
 
     public JwtResponse(String token, String email, String firstName, String lastName,
-                       Role role, Integer totalVacationDays, Integer usedVacationDays) {
+                       Role role, Integer totalVacationDays, Integer usedVacationDays,
+                       Integer reservedVacationDays) {
         this.token = token;
         this.email = email;
         this.firstName = firstName;
@@ -27,7 +30,8 @@ public class JwtResponse {
         this.role = role;
         this.totalVacationDays = totalVacationDays;
         this.usedVacationDays = usedVacationDays;
-        this.availableVacationDays = totalVacationDays - usedVacationDays;
+        this.reservedVacationDays = reservedVacationDays;
+        this.availableVacationDays = totalVacationDays - usedVacationDays - reservedVacationDays;
     }
 
     // Gettery i settery
@@ -39,6 +43,14 @@ public class JwtResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getType() {
         return type;
     }
@@ -95,6 +107,14 @@ public class JwtResponse {
         this.usedVacationDays = usedVacationDays;
     }
 
+    public Integer getReservedVacationDays() {
+        return reservedVacationDays;
+    }
+
+    public void setReservedVacationDays(Integer reservedVacationDays) {
+        this.reservedVacationDays = reservedVacationDays;
+    }
+
     public Integer getAvailableVacationDays() {
         return availableVacationDays;
     }
@@ -30,10 +30,12 @@ public class UserDto {
     private Integer totalVacationDays;
 
     private Integer usedVacationDays;
+    private Integer reservedVacationDays;
     private Integer availableVacationDays;
     private Boolean active;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // Wersja odczytana przez klienta - przy edycji wykrywa zmiany innego administratora
 
     // Konstruktory
     public UserDto() {}
@@ -103,6 +105,14 @@ public class UserDto {
         this.usedVacationDays = usedVacationDays;
     }
 
+    public Integer getReservedVacationDays() {
+        return reservedVacationDays;
+    }
+
+    public void setReservedVacationDays(Integer reservedVacationDays) {
+        this.reservedVacationDays = reservedVacationDays;
+    }
+
     public Integer getAvailableVacationDays() {
         return availableVacationDays;
     }
@@ -138,4 +148,12 @@ public class UserDto {
     public String getFullName() {
         return firstName + " " + lastName;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,92 @@
+package com.example.vacation_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wynik importu użytkowników z pliku CSV - liczniki oraz błędy poszczególnych wierszy
+ */
+public class UserImportReport {
+
+    private int totalRows;
+    private int imported;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Konstruktory
+    public UserImportReport() {}
+
+    public void addError(int line, String email, String message) {
+        errors.add(new RowError(line, email, message));
+    }
+
+    // Gettery i settery
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    /**
+     * Błąd wiersza pliku (numer linii liczony od nagłówka = 1)
+     */
+    public static class RowError {
+
+        private int line;
+        private String email;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int line, String email, String message) {
+            this.line = line;
+            this.email = email;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public void setLine(int line) {
+            this.line = line;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
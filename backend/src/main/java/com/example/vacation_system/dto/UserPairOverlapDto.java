@@ -0,0 +1,45 @@
+package com.example.vacation_system.dto;
+
+/**
+ * Para użytkowników z liczbą wspólnych dni nieobecności
+ */
+public class UserPairOverlapDto {
+
+    private Long firstUserId;
+    private Long secondUserId;
+    private int sharedDays;
+
+    // Konstruktory
+    public UserPairOverlapDto() {}
+
+    public UserPairOverlapDto(Long firstUserId, Long secondUserId, int sharedDays) {
+        this.firstUserId = firstUserId;
+        this.secondUserId = secondUserId;
+        this.sharedDays = sharedDays;
+    }
+
+    // Gettery i settery
+    public Long getFirstUserId() {
+        return firstUserId;
+    }
+
+    public void setFirstUserId(Long firstUserId) {
+        this.firstUserId = firstUserId;
+    }
+
+    public Long getSecondUserId() {
+        return secondUserId;
+    }
+
+    public void setSecondUserId(Long secondUserId) {
+        this.secondUserId = secondUserId;
+    }
+
+    public int getSharedDays() {
+        return sharedDays;
+    }
+
+    public void setSharedDays(int sharedDays) {
+        this.sharedDays = sharedDays;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.vacation_system.dto;
+
+/**
+ * Dni urlopowe przypisane do użytkownika (projekcja zapytań grupujących):
+ * wykorzystane (zatwierdzone wnioski) i zarezerwowane (oczekujące wnioski)
+ */
+public interface UserUsedDays {
+
+    Long getUserId();
+
+    Number getUsedDays();
+
+    Number getReservedDays();
+}
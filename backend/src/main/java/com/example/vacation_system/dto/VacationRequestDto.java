@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Future;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 public class VacationRequestDto {
 
@@ -33,6 +34,7 @@ public class VacationRequestDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long daysCount;
+    private Long version;
 
     // Konstruktory
     public VacationRequestDto() {}
@@ -43,6 +45,37 @@ public class VacationRequestDto {
         this.reason = reason;
     }
 
+    /**
+     * Konstruktor projekcji JPQL - wiersz z wnioskiem oraz dołączonymi danymi
+     * wnioskującego i zatwierdzającego, bez tworzenia encji
+     */
+    public VacationRequestDto(Long id, Long userId, String userFirstName, String userLastName, String userEmail,
+                              LocalDate startDate, LocalDate endDate, String reason, VacationStatus status,
+                              String adminComment, Long approvedById, String approvedByFirstName,
+                              String approvedByLastName, LocalDateTime approvedAt,
+                              LocalDateTime createdAt, LocalDateTime updatedAt, Integer daysCount,
+                              Long version) {
+        this.id = id;
+        this.userId = userId;
+        this.userFullName = userFirstName + " " + userLastName;
+        this.userEmail = userEmail;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.reason = reason;
+        this.status = status;
+        this.adminComment = adminComment;
+        this.approvedById = approvedById;
+        if (approvedById != null) {
+            this.approvedByName = approvedByFirstName + " " + approvedByLastName;
+        }
+        this.approvedAt = approvedAt;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        // Starsze wnioski bez zapisanej liczby dni roboczych - dni kalendarzowe
+        this.daysCount = daysCount != null ? daysCount : ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        this.version = version;
+    }
+
     // Gettery i settery
     public Long getId() {
         return id;
@@ -163,4 +196,12 @@ public class VacationRequestDto {
     public void setDaysCount(Long daysCount) {
         this.daysCount = daysCount;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
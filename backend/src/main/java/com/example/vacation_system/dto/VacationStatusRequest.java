@@ -10,6 +10,9 @@ public class VacationStatusRequest {
 
     private String adminComment;
 
+    // Opcjonalna wersja wniosku, na podstawie której administrator podjął decyzję
+    private Long version;
+
     // Konstruktory
     public VacationStatusRequest() {}
 
@@ -34,4 +37,12 @@ public class VacationStatusRequest {
     public void setAdminComment(String adminComment) {
         this.adminComment = adminComment;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
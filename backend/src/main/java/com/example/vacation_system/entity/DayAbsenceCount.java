@@ -0,0 +1,45 @@
+package com.example.vacation_system.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Liczba osób na zatwierdzonym urlopie w danym dniu (agregat pod kalendarz obłożenia)
+ */
+@Entity
+@Table(name = "day_absence_count")
+public class DayAbsenceCount {
+
+    @Id
+    @Column(name = "absence_date")
+    private LocalDate absenceDate;
+
+    @Column(name = "absence_count", nullable = false)
+    private int absenceCount;
+
+    // Konstruktory
+    public DayAbsenceCount() {}
+
+    public DayAbsenceCount(LocalDate absenceDate, int absenceCount) {
+        this.absenceDate = absenceDate;
+        this.absenceCount = absenceCount;
+    }
+
+    // Gettery i settery
+    public LocalDate getAbsenceDate() {
+        return absenceDate;
+    }
+
+    public void setAbsenceDate(LocalDate absenceDate) {
+        this.absenceDate = absenceDate;
+    }
+
+    public int getAbsenceCount() {
+        return absenceCount;
+    }
+
+    public void setAbsenceCount(int absenceCount) {
+        this.absenceCount = absenceCount;
+    }
+}
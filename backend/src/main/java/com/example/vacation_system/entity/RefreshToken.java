@@ -0,0 +1,115 @@
+package com.example.vacation_system.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token odświeżający sesję. Przechowywany jest wyłącznie skrót SHA-256 tokenu (klucz główny),
+ * więc wyciek tabeli nie pozwala przejąć sesji. Token jest jednorazowy - odświeżenie oznacza wiersz
+ * jako użyty i wydaje nowy token. Użyte wiersze zostają do wygaśnięcia, aby wykryć ponowne użycie.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+public class RefreshToken implements Persistable<String> {
+
+    @Id
+    @Column(name = "token_hash", length = 43)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Wersja tokenów użytkownika z chwili wydania - zmiana roli lub dezaktywacja unieważnia też odświeżanie
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Chwila rotacji - ponowne przedstawienie użytego tokenu oznacza jego wyciek
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    // Klucz nadawany przez aplikację - zapis bez zbędnego SELECT przed INSERT
+    @Transient
+    private boolean isNew = true;
+
+    // Konstruktory
+    public RefreshToken() {}
+
+    public RefreshToken(String tokenHash, Long userId, Integer tokenVersion, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    // Gettery i settery
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(LocalDateTime usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    public boolean isUsed() {
+        return usedAt != null;
+    }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+}
@@ -4,16 +4,21 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_created", columnList = "created_at DESC, id DESC")
+})
 public class User {
 
+    // Sekwencja z pulą identyfikatorów - import wielu użytkowników zapisuje wiersze partiami JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Imię jest wymagane")
@@ -42,18 +47,34 @@ public class User {
     @Column(nullable = false)
     private Integer totalVacationDays = 26; // Domyślnie 26 dni
 
-    @Column(nullable = false)
+    // Zmieniane tylko atomowymi zapytaniami UserRepository - zapis encji nie nadpisuje salda
+    @Column(nullable = false, updatable = false)
     private Integer usedVacationDays = 0; // Wykorzystane dni
 
+    // Dni zarezerwowane przez oczekujące wnioski - również zmieniane wyłącznie atomowymi zapytaniami
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer reservedVacationDays = 0;
+
     @Column(nullable = false)
     private Boolean active = true; // Czy konto jest aktywne
 
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Integer tokenVersion = 0; // Podbijana przy zmianie roli/dezaktywacji - unieważnia wydane tokeny
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Blokada optymistyczna edycji konta; atomowe zmiany salda nie podbijają wersji
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Konstruktory
     public User() {}
 
@@ -144,8 +165,16 @@ public class User {
         this.usedVacationDays = usedVacationDays;
     }
 
+    public Integer getReservedVacationDays() {
+        return reservedVacationDays;
+    }
+
+    public void setReservedVacationDays(Integer reservedVacationDays) {
+        this.reservedVacationDays = reservedVacationDays;
+    }
+
     public Integer getAvailableVacationDays() {
-        return totalVacationDays - usedVacationDays;
+        return totalVacationDays - usedVacationDays - reservedVacationDays;
     }
 
     public Boolean getActive() {
@@ -156,6 +185,21 @@ public class User {
         this.active = active;
     }
 
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
+    /**
+     * Unieważnia wszystkie tokeny wydane dla użytkownika
+     */
+    public void bumpTokenVersion() {
+        this.tokenVersion = tokenVersion + 1;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -172,6 +216,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -3,17 +3,27 @@ package com.example.vacation_system.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "vacation_requests")
+@Table(name = "vacation_requests", indexes = {
+        // Indeksy pod stronicowanie kursorem (createdAt DESC, id DESC) z opcjonalnym filtrem
+        @Index(name = "idx_vacation_requests_created", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_vacation_requests_status_created", columnList = "status, created_at DESC, id DESC"),
+        @Index(name = "idx_vacation_requests_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        // Sprawdzanie kolizji urlopów użytkownika wyłącznie z indeksu
+        @Index(name = "idx_vacation_requests_user_status_dates", columnList = "user_id, status, start_date, end_date")
+})
 public class VacationRequest {
 
+    // Sekwencja z pulą identyfikatorów zamiast IDENTITY - pozwala Hibernate grupować zapisy w partie JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vacation_requests_seq")
+    @SequenceGenerator(name = "vacation_requests_seq", sequenceName = "vacation_requests_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,6 +39,10 @@ public class VacationRequest {
     @Column(nullable = false)
     private LocalDate endDate;
 
+    // Dni robocze policzone przy złożeniu wniosku; null dla wniosków sprzed wprowadzenia kalendarza dni roboczych
+    @Column(name = "days_count")
+    private Integer daysCount;
+
     @Column(length = 500)
     private String reason; // Opcjonalny powód urlopu
 
@@ -52,6 +66,12 @@ public class VacationRequest {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Blokada optymistyczna - równoległe decyzje administratorów nie nadpisują się nawzajem
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Konstruktory
     public VacationRequest() {}
 
@@ -77,8 +97,16 @@ public class VacationRequest {
     }
 
     // Metody pomocnicze
+    /**
+     * Liczba dni urlopu obciążających saldo - dni robocze zapisane przy złożeniu wniosku,
+     * a dla starszych wniosków (bez zapisanej wartości) dni kalendarzowe, tak jak były naliczane
+     */
     public long getDaysCount() {
-        return ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        return daysCount != null ? daysCount : ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    }
+
+    public void setDaysCount(Integer daysCount) {
+        this.daysCount = daysCount;
     }
 
     public boolean isApproved() {
@@ -185,4 +213,12 @@ public class VacationRequest {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.vacation_system.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Błąd domenowy zamieniany przez {@link ApiExceptionHandler} na odpowiedź z kodem HTTP i komunikatem.
+ * To zwykłe odrzucenie żądania, a nie awaria - wyjątek nie zapisuje stosu wywołań,
+ * więc odrzucone żądanie nie kosztuje więcej niż udane.
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final String error;
+
+    protected ApiException(HttpStatus status, String error, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.error = error;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.vacation_system.exception;
+
+import com.example.vacation_system.dto.ErrorResponse;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.entity.VacationRequest;
+import com.example.vacation_system.service.UserService;
+import com.example.vacation_system.service.VacationService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Jedno miejsce zamiany wyjątków na odpowiedzi HTTP - kontrolery zwracają tylko wyniki udanych operacji
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    @Autowired
+    private PreparedErrorResponses preparedErrorResponses;
+
+    @Autowired
+    private VacationService vacationService;
+
+    @Autowired
+    private UserService userService;
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<ErrorResponse> handleApiException(ApiException e) {
+        return ResponseEntity.status(e.getStatus()).body(new ErrorResponse(e.getError(), e.getMessage()));
+    }
+
+    /**
+     * Adnotacje walidacji DTO - wszystkie naruszenia w jednym komunikacie
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidation(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getAllErrors().stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return ResponseEntity.badRequest().body(new ErrorResponse("Nieprawidłowe dane", message));
+    }
+
+    /**
+     * Niepoprawne argumenty (np. wartości spoza dozwolonego zbioru) - błąd klienta, nie serwera
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("Nieprawidłowe żądanie", e.getMessage()));
+    }
+
+    /**
+     * Parametr ścieżki lub zapytania, którego nie da się zamienić na oczekiwany typ
+     */
+    @ExceptionHandler(TypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(TypeMismatchException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("Nieprawidłowe żądanie",
+                "Nieprawidłowa wartość parametru " + e.getPropertyName() + ": " + e.getValue()));
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleNotReadable(HttpMessageNotReadableException e) {
+        return ResponseEntity.badRequest().body(new ErrorResponse("Nieprawidłowe żądanie",
+                "Nieprawidłowy format danych w treści żądania"));
+    }
+
+    /**
+     * Brak uprawnień i brak uwierzytelnienia obsługuje łańcuch filtrów bezpieczeństwa
+     * (401 dla anonimowych, 403 dla zalogowanych) - wyjątek przekazywany jest dalej
+     */
+    @ExceptionHandler({AccessDeniedException.class, AuthenticationException.class})
+    public void rethrowSecurityException(RuntimeException e) {
+        throw e;
+    }
+
+    /**
+     * Pozostałe wyjątki: standardowe błędy Spring MVC zachowują swój status,
+     * wszystko inne to 500 bez ujawniania szczegółów klientowi
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleUnexpected(Exception e) {
+        if (e instanceof org.springframework.web.ErrorResponse springError) {
+            HttpStatusCode status = springError.getStatusCode();
+            String error = status.value() == HttpStatus.NOT_FOUND.value() ? "Nie znaleziono"
+                    : status.is4xxClientError() ? "Nieprawidłowe żądanie" : "Błąd serwera";
+            return ResponseEntity.status(status).headers(springError.getHeaders())
+                    .body(new ErrorResponse(error, springError.getBody().getDetail()));
+        }
+        log.error("Nieobsłużony wyjątek podczas przetwarzania żądania", e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Błąd serwera", "Wystąpił nieoczekiwany błąd"));
+    }
+
+    /**
+     * Gotowe bajty zapisywane wprost do odpowiedzi - wyjątki rozwiązuje też resolver Spring Data REST,
+     * którego konwerter JSON zakodowałby tablicę bajtów jako tekst base64
+     */
+    @ExceptionHandler(BadCredentialsException.class)
+    public void handleBadCredentials(HttpServletResponse response) throws IOException {
+        preparedErrorResponses.invalidCredentials().writeTo(response);
+    }
+
+    /**
+     * Odpowiedź 409 z aktualnym stanem wniosku lub konta zmienionego równolegle przez innego użytkownika
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLock(OptimisticLockingFailureException e) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", "Konflikt zapisu");
+
+        Long id = null;
+        String entityName = null;
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure
+                && objectFailure.getIdentifier() instanceof Long identifier) {
+            id = identifier;
+            entityName = objectFailure.getPersistentClassName();
+        }
+
+        if (User.class.getName().equals(entityName)) {
+            error.put("message", "Użytkownik został w międzyczasie zmieniony przez innego administratora");
+            userService.getUserById(id).ifPresent(current -> error.put("user", current));
+        } else {
+            error.put("message", "Wniosek został w międzyczasie zmieniony przez innego użytkownika");
+            if (VacationRequest.class.getName().equals(entityName)) {
+                vacationService.getVacationRequestById(id).ifPresent(current -> error.put("vacation", current));
+            }
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+}
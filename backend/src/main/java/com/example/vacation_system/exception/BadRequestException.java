@@ -0,0 +1,13 @@
+package com.example.vacation_system.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Nieprawidłowe dane wejściowe (daty, zakres, parametry, format pliku) - 400
+ */
+public class BadRequestException extends ApiException {
+
+    public BadRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, "Nieprawidłowe żądanie", message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.vacation_system.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Operacja niemożliwa w bieżącym stanie danych (saldo, status wniosku, zajęty email) - 409
+ */
+public class ConflictException extends ApiException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, "Operacja niemożliwa", message);
+    }
+}
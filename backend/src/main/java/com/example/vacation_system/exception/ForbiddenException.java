@@ -0,0 +1,13 @@
+package com.example.vacation_system.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Operacja na cudzym zasobie (np. wniosku innego pracownika) - 403
+ */
+public class ForbiddenException extends ApiException {
+
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, "Brak uprawnień", message);
+    }
+}
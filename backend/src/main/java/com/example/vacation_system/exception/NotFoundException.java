@@ -0,0 +1,13 @@
+package com.example.vacation_system.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Brak wskazanego wniosku lub użytkownika - 404
+ */
+public class NotFoundException extends ApiException {
+
+    public NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, "Nie znaleziono", message);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.vacation_system.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stałe odpowiedzi błędów (401, 403, 429) serializowane raz przy starcie do tablic bajtów.
+ * Właśnie te odpowiedzi mnożą się przy atakach na logowanie i przy wygasłych tokenach -
+ * ich wysłanie nie tworzy map ani nie uruchamia serializacji.
+ */
+@Component
+public class PreparedErrorResponses {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PreparedError unauthorized;
+
+    private PreparedError forbidden;
+
+    private PreparedError invalidCredentials;
+
+    private PreparedError invalidToken;
+
+    private PreparedError sessionExpired;
+
+    private PreparedError tooManyLoginAttempts;
+
+    private PreparedError loginOverloaded;
+
+    @PostConstruct
+    void init() throws JsonProcessingException {
+        Map<String, Object> unauthorizedBody = error("Unauthorized", "Brak autoryzacji lub nieprawidłowy token");
+        unauthorizedBody.put("status", HttpStatus.UNAUTHORIZED.value());
+        this.unauthorized = prepare(HttpStatus.UNAUTHORIZED, unauthorizedBody);
+        this.forbidden = prepare(HttpStatus.FORBIDDEN,
+                error("Brak uprawnień", "Nie masz uprawnień do wykonania tej operacji"));
+        this.invalidCredentials = prepare(HttpStatus.UNAUTHORIZED,
+                error("Nieprawidłowe dane logowania", "Sprawdź email i hasło"));
+        this.sessionExpired = prepare(HttpStatus.UNAUTHORIZED, error("Sesja wygasła", "Zaloguj się ponownie"));
+        this.tooManyLoginAttempts = prepare(HttpStatus.TOO_MANY_REQUESTS,
+                error("Zbyt wiele żądań", "Zbyt wiele prób logowania - spróbuj ponownie później"));
+        this.loginOverloaded = prepare(HttpStatus.TOO_MANY_REQUESTS,
+                error("Zbyt wiele żądań", "Serwer jest przeciążony - spróbuj ponownie za chwilę"));
+
+        Map<String, Object> invalidTokenBody = new LinkedHashMap<>();
+        invalidTokenBody.put("valid", false);
+        invalidTokenBody.put("message", "Token nieprawidłowy");
+        this.invalidToken = prepare(HttpStatus.UNAUTHORIZED, invalidTokenBody);
+    }
+
+    private static Map<String, Object> error(String error, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        return body;
+    }
+
+    private PreparedError prepare(HttpStatus status, Object body) throws JsonProcessingException {
+        return new PreparedError(status, objectMapper.writeValueAsBytes(body));
+    }
+
+    // Brak lub nieważny token przy chronionym zasobie
+    public PreparedError unauthorized() {
+        return unauthorized;
+    }
+
+    // Zasób wymaga innej roli
+    public PreparedError forbidden() {
+        return forbidden;
+    }
+
+    public PreparedError invalidCredentials() {
+        return invalidCredentials;
+    }
+
+    // Odpowiedź /api/auth/validate dla nieuwierzytelnionego żądania
+    public PreparedError invalidToken() {
+        return invalidToken;
+    }
+
+    // Nieważny, wykorzystany lub wygasły token odświeżający
+    public PreparedError sessionExpired() {
+        return sessionExpired;
+    }
+
+    public PreparedError tooManyLoginAttempts() {
+        return tooManyLoginAttempts;
+    }
+
+    public PreparedError loginOverloaded() {
+        return loginOverloaded;
+    }
+
+    /**
+     * Kod HTTP z gotową treścią JSON. Tablica jest współdzielona przez wszystkie odpowiedzi - tylko do odczytu.
+     */
+    public static final class PreparedError {
+
+        private final HttpStatus status;
+        private final byte[] body;
+
+        PreparedError(HttpStatus status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public ResponseEntity<byte[]> toResponse() {
+            return toResponse(HttpHeaders.EMPTY);
+        }
+
+        public ResponseEntity<byte[]> toResponse(HttpHeaders headers) {
+            return ResponseEntity.status(status)
+                    .headers(headers)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+
+        /**
+         * Zapis bezpośrednio do odpowiedzi - dla filtrów bezpieczeństwa działających poza kontrolerami
+         */
+        public void writeTo(HttpServletResponse response) throws IOException {
+            response.setStatus(status.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
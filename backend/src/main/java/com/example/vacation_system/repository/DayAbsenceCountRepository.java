@@ -0,0 +1,39 @@
+package com.example.vacation_system.repository;
+
+import com.example.vacation_system.entity.DayAbsenceCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DayAbsenceCountRepository extends JpaRepository<DayAbsenceCount, LocalDate> {
+
+    List<DayAbsenceCount> findByAbsenceDateBetweenOrderByAbsenceDate(LocalDate from, LocalDate to);
+
+    @Query("SELECT d.absenceDate FROM DayAbsenceCount d WHERE d.absenceDate BETWEEN :from AND :to")
+    List<LocalDate> findDatesBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Zmienia liczniki istniejących dni z zakresu o delta (jedno zapytanie dla całego urlopu)
+     */
+    @Modifying
+    @Query("UPDATE DayAbsenceCount d SET d.absenceCount = d.absenceCount + :delta " +
+            "WHERE d.absenceDate BETWEEN :from AND :to")
+    int addToRange(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("delta") int delta);
+
+    /**
+     * Wstawia lub zmienia liczniki wszystkich dni z zakresu jednym poleceniem (tylko PostgreSQL)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO day_absence_count (absence_date, absence_count) " +
+            "SELECT CAST(day AS date), :delta FROM generate_series(CAST(:from AS date), CAST(:to AS date), " +
+            "INTERVAL '1 day') AS day " +
+            "ON CONFLICT (absence_date) DO UPDATE " +
+            "SET absence_count = day_absence_count.absence_count + EXCLUDED.absence_count", nativeQuery = true)
+    int upsertRange(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("delta") int delta);
+}
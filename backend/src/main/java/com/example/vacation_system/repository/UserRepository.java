@@ -3,20 +3,28 @@ package com.example.vacation_system.repository;
 
 import com.example.vacation_system.entity.Role;
 import com.example.vacation_system.entity.User;
+import com.example.vacation_system.dto.UserUsedDays;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
+    // Import użytkowników: które z podanych adresów są już zajęte - jedno zapytanie na partię
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     List<User> findByRole(Role role);
 
     List<User> findByActiveTrue();
@@ -28,4 +36,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findAllAdmins();
 
     long countByRole(Role role);
+
+    @Query("SELECT u.id FROM User u WHERE u.active = true")
+    List<Long> findActiveUserIds();
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id AND u.active = true")
+    Optional<Integer> findActiveTokenVersion(@Param("id") Long id);
+
+    // Przehashowanie hasła przy logowaniu - bez podbijania wersji encji
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    // Saldo wykorzystanych dni zmieniane jest wyłącznie atomowymi zapytaniami poniżej
+    @Modifying
+    @Query("UPDATE User u SET u.usedVacationDays = u.usedVacationDays + :delta WHERE u.id = :id")
+    int addUsedVacationDays(@Param("id") Long id, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE User u SET u.usedVacationDays = :usedDays WHERE u.id = :id")
+    int setUsedVacationDays(@Param("id") Long id, @Param("usedDays") int usedDays);
+
+    /**
+     * Rezerwuje dni pod oczekujący wniosek, o ile mieszczą się w dostępnym saldzie.
+     * Warunek i zmiana w jednym poleceniu - równoległe wnioski nie mogą przekroczyć salda.
+     *
+     * @return 1 gdy rezerwacja się udała, 0 gdy brakuje dni
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.reservedVacationDays = u.reservedVacationDays + :days " +
+            "WHERE u.id = :id AND u.totalVacationDays - u.usedVacationDays - u.reservedVacationDays >= :days")
+    int reserveVacationDays(@Param("id") Long id, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.reservedVacationDays = u.reservedVacationDays - :days WHERE u.id = :id")
+    int releaseReservedVacationDays(@Param("id") Long id, @Param("days") int days);
+
+    // Zatwierdzenie przenosi rezerwację do wykorzystanych dni
+    @Modifying
+    @Query("UPDATE User u SET u.usedVacationDays = u.usedVacationDays + :days, " +
+            "u.reservedVacationDays = u.reservedVacationDays - :days WHERE u.id = :id")
+    int consumeReservedVacationDays(@Param("id") Long id, @Param("days") int days);
+
+    @Modifying
+    @Query("UPDATE User u SET u.usedVacationDays = :actualUsedDays, u.reservedVacationDays = :actualReservedDays " +
+            "WHERE u.id = :id AND u.usedVacationDays = :expectedUsedDays " +
+            "AND u.reservedVacationDays = :expectedReservedDays")
+    int correctVacationBalance(@Param("id") Long id,
+                               @Param("expectedUsedDays") int expectedUsedDays,
+                               @Param("expectedReservedDays") int expectedReservedDays,
+                               @Param("actualUsedDays") int actualUsedDays,
+                               @Param("actualReservedDays") int actualReservedDays);
+
+    @Query("SELECT u.id AS userId, u.usedVacationDays AS usedDays, u.reservedVacationDays AS reservedDays FROM User u")
+    List<UserUsedDays> findAllVacationBalances();
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.example.vacation_system.repository;
+
+import com.example.vacation_system.entity.Role;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.util.PageCursor;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Strona użytkowników w porządku (createdAt DESC, id DESC) zaczynająca się za kursorem.
+     * Filtry o wartości null są pomijane.
+     */
+    List<User> findPage(Role role, Boolean active, PageCursor after, int limit);
+}
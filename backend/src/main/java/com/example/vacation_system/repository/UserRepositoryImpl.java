@@ -0,0 +1,43 @@
+package com.example.vacation_system.repository;
+
+import com.example.vacation_system.entity.Role;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<User> findPage(Role role, Boolean active, PageCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT u FROM User u WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (role != null) {
+            jpql.append(" AND u.role = :role");
+            parameters.put("role", role);
+        }
+        if (active != null) {
+            jpql.append(" AND u.active = :active");
+            parameters.put("active", active);
+        }
+        if (after != null) {
+            jpql.append(" AND (u.createdAt, u.id) < (:afterCreatedAt, :afterId)");
+            parameters.put("afterCreatedAt", after.createdAt());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY u.createdAt DESC, u.id DESC");
+
+        TypedQuery<User> query = entityManager.createQuery(jpql.toString(), User.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
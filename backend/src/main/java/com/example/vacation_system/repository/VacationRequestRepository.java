@@ -1,5 +1,7 @@
 package com.example.vacation_system.repository;
 
+import com.example.vacation_system.dto.UserUsedDays;
+import com.example.vacation_system.dto.VacationRequestDto;
 import com.example.vacation_system.entity.User;
 import com.example.vacation_system.entity.VacationRequest;
 import com.example.vacation_system.entity.VacationStatus;
@@ -9,10 +11,35 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface VacationRequestRepository extends JpaRepository<VacationRequest, Long> {
+public interface VacationRequestRepository extends JpaRepository<VacationRequest, Long>, VacationRequestRepositoryCustom {
+
+    // Projekcja do DTO: jedno zapytanie z dwoma złączeniami z tabelą users, bez encji w kontekście
+    String DTO_SELECT = "SELECT new com.example.vacation_system.dto.VacationRequestDto(" +
+            "vr.id, u.id, u.firstName, u.lastName, u.email, vr.startDate, vr.endDate, vr.reason, vr.status, " +
+            "vr.adminComment, a.id, a.firstName, a.lastName, vr.approvedAt, vr.createdAt, vr.updatedAt, vr.daysCount, " +
+            "vr.version) " +
+            "FROM VacationRequest vr JOIN vr.user u LEFT JOIN vr.approvedBy a ";
+
+    @Query(DTO_SELECT + "ORDER BY vr.createdAt DESC")
+    List<VacationRequestDto> findAllDtos();
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId ORDER BY vr.createdAt DESC")
+    List<VacationRequestDto> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + "WHERE vr.status = :status ORDER BY vr.createdAt DESC")
+    List<VacationRequestDto> findDtosByStatus(@Param("status") VacationStatus status);
+
+    // Okno indeksu kalendarza: zatwierdzone urlopy kończące się nie wcześniej niż podana data
+    @Query(DTO_SELECT + "WHERE vr.status = 'APPROVED' AND vr.endDate >= :from")
+    List<VacationRequestDto> findApprovedDtosEndingOnOrAfter(@Param("from") LocalDate from);
+
+    @Query(DTO_SELECT + "WHERE vr.id = :id")
+    Optional<VacationRequestDto> findDtoById(@Param("id") Long id);
 
     List<VacationRequest> findByUser(User user);
 
@@ -22,29 +49,44 @@ public interface VacationRequestRepository extends JpaRepository<VacationRequest
 
     List<VacationRequest> findByStatusOrderByCreatedAtDesc(VacationStatus status);
 
-    @Query("SELECT vr FROM VacationRequest vr WHERE vr.status = 'APPROVED' " +
-            "AND ((vr.startDate BETWEEN :startDate AND :endDate) " +
-            "OR (vr.endDate BETWEEN :startDate AND :endDate) " +
-            "OR (vr.startDate <= :startDate AND vr.endDate >= :endDate))")
-    List<VacationRequest> findApprovedVacationsInDateRange(
+    /**
+     * Czy użytkownik ma zatwierdzony urlop nachodzący na okres - odczyt wyłącznie z indeksu
+     * (user_id, status, start_date, end_date), bez ładowania encji
+     */
+    @Query("SELECT CASE WHEN COUNT(vr) > 0 THEN true ELSE false END FROM VacationRequest vr " +
+            "WHERE vr.user.id = :userId AND vr.status = 'APPROVED' " +
+            "AND vr.startDate <= :endDate AND vr.endDate >= :startDate")
+    boolean existsUserApprovedVacationInDateRange(
+            @Param("userId") Long userId,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
-    @Query("SELECT vr FROM VacationRequest vr WHERE vr.user = :user AND vr.status = 'APPROVED' " +
-            "AND ((vr.startDate BETWEEN :startDate AND :endDate) " +
-            "OR (vr.endDate BETWEEN :startDate AND :endDate) " +
-            "OR (vr.startDate <= :startDate AND vr.endDate >= :endDate))")
-    List<VacationRequest> findUserApprovedVacationsInDateRange(
-            @Param("user") User user,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    List<VacationRequest> findByUserAndStatus(User user, VacationStatus status);
 
-    @Query("SELECT vr FROM VacationRequest vr WHERE vr.status = 'APPROVED' " +
-            "AND vr.startDate <= :date AND vr.endDate >= :date")
-    List<VacationRequest> findApprovedVacationsOnDate(@Param("date") LocalDate date);
+    // Decyzje zbiorcze: wszystkie wnioski wraz z wnioskującymi jednym zapytaniem
+    @Query("SELECT vr FROM VacationRequest vr JOIN FETCH vr.user WHERE vr.id IN :ids")
+    List<VacationRequest> findAllWithUserByIdIn(@Param("ids") Collection<Long> ids);
 
-    // Usunąłem problematyczną metodę calculateUsedVacationDays
-    // Logika zostanie przeniesiona do serwisu
+    /**
+     * Suma dni zatwierdzonych (usedDays) i oczekujących (reservedDays) wniosków dla wszystkich użytkowników
+     * - jedno zapytanie grupujące. Wnioski bez zapisanej liczby dni roboczych liczone są w dniach
+     * kalendarzowych (jak VacationRequest.getDaysCount)
+     */
+    @Query("SELECT vr.user.id AS userId, " +
+            "SUM(CASE WHEN vr.status = 'APPROVED' " +
+            "THEN COALESCE(vr.daysCount, (vr.endDate - vr.startDate) by day + 1) ELSE 0 END) AS usedDays, " +
+            "SUM(CASE WHEN vr.status = 'PENDING' " +
+            "THEN COALESCE(vr.daysCount, (vr.endDate - vr.startDate) by day + 1) ELSE 0 END) AS reservedDays " +
+            "FROM VacationRequest vr WHERE vr.status IN ('APPROVED', 'PENDING') GROUP BY vr.user.id")
+    List<UserUsedDays> sumBookedDaysByUser();
 
-    List<VacationRequest> findByUserAndStatus(User user, VacationStatus status);
-}
\ No newline at end of file
+    @Query("SELECT vr.startDate, vr.endDate FROM VacationRequest vr WHERE vr.status = 'APPROVED'")
+    List<Object[]> findApprovedPeriods();
+
+    @Query("SELECT vr.user.id, vr.startDate, vr.endDate FROM VacationRequest vr WHERE vr.status = 'APPROVED'")
+    List<Object[]> findApprovedPeriodsWithUser();
+
+    @Query("SELECT vr.startDate, vr.endDate FROM VacationRequest vr " +
+            "WHERE vr.user.id = :userId AND vr.status = 'APPROVED'")
+    List<Object[]> findApprovedPeriodsByUserId(@Param("userId") Long userId);
+}
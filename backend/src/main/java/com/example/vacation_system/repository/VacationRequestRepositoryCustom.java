@@ -0,0 +1,24 @@
+package com.example.vacation_system.repository;
+
+import com.example.vacation_system.dto.VacationRequestDto;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.util.PageCursor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VacationRequestRepositoryCustom {
+
+    /**
+     * Strona wniosków w porządku (createdAt DESC, id DESC) zaczynająca się za kursorem.
+     * Filtry o wartości null są pomijane.
+     */
+    List<VacationRequestDto> findDtoPage(VacationStatus status, Long userId, LocalDate from, LocalDate to,
+                                         PageCursor after, int limit);
+
+    /**
+     * Zatwierdzone urlopy nachodzące na okres [from, to]. Na PostgreSQL z kolumną period
+     * zapytanie korzysta z częściowego indeksu GiST, w pozostałych bazach z indeksu B-tree.
+     */
+    List<VacationRequestDto> findApprovedDtosOverlapping(LocalDate from, LocalDate to);
+}
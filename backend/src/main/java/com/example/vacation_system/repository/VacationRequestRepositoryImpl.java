@@ -0,0 +1,115 @@
+package com.example.vacation_system.repository;
+
+import com.example.vacation_system.config.VacationPeriodSchemaInitializer;
+import com.example.vacation_system.dto.VacationRequestDto;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class VacationRequestRepositoryImpl implements VacationRequestRepositoryCustom {
+
+    // Odpowiednik DTO_SELECT w SQL dla zapytań, których warunku nie da się wyrazić w JPQL
+    private static final String APPROVED_OVERLAPPING_SQL =
+            "SELECT vr.id, u.id AS user_id, u.first_name AS user_first_name, u.last_name AS user_last_name, " +
+            "u.email AS user_email, vr.start_date, vr.end_date, vr.reason, vr.status, vr.admin_comment, " +
+            "a.id AS approved_by_id, a.first_name AS approved_by_first_name, a.last_name AS approved_by_last_name, " +
+            "vr.approved_at, vr.created_at, vr.updated_at, vr.days_count, vr.version " +
+            "FROM vacation_requests vr JOIN users u ON u.id = vr.user_id " +
+            "LEFT JOIN users a ON a.id = vr.approved_by_id " +
+            "WHERE vr.status = 'APPROVED' AND vr.period && daterange(:from, :to, '[]')";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private VacationPeriodSchemaInitializer periodSchema;
+
+    @Override
+    public List<VacationRequestDto> findDtoPage(VacationStatus status, Long userId, LocalDate from, LocalDate to,
+                                                PageCursor after, int limit) {
+        // Zapytanie składane tylko z użytych filtrów - każda kombinacja trafia w indeks złożony
+        StringBuilder jpql = new StringBuilder(VacationRequestRepository.DTO_SELECT).append("WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (status != null) {
+            jpql.append(" AND vr.status = :status");
+            parameters.put("status", status);
+        }
+        if (userId != null) {
+            jpql.append(" AND u.id = :userId");
+            parameters.put("userId", userId);
+        }
+        if (from != null) {
+            jpql.append(" AND vr.endDate >= :from");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            jpql.append(" AND vr.startDate <= :to");
+            parameters.put("to", to);
+        }
+        if (after != null) {
+            jpql.append(" AND (vr.createdAt, vr.id) < (:afterCreatedAt, :afterId)");
+            parameters.put("afterCreatedAt", after.createdAt());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY vr.createdAt DESC, vr.id DESC");
+
+        TypedQuery<VacationRequestDto> query = entityManager.createQuery(jpql.toString(), VacationRequestDto.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<VacationRequestDto> findApprovedDtosOverlapping(LocalDate from, LocalDate to) {
+        if (!periodSchema.isPeriodIndexAvailable()) {
+            return entityManager.createQuery(VacationRequestRepository.DTO_SELECT +
+                            "WHERE vr.status = 'APPROVED' AND vr.startDate <= :to AND vr.endDate >= :from",
+                            VacationRequestDto.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .getResultList();
+        }
+
+        // Jedno zapytanie natywne - operator && korzysta z indeksu GiST, złączenia jak w DTO_SELECT
+        @SuppressWarnings("unchecked")
+        NativeQuery<VacationRequestDto> query = entityManager.createNativeQuery(APPROVED_OVERLAPPING_SQL)
+                .unwrap(NativeQuery.class);
+        return query
+                .addScalar("id", Long.class)
+                .addScalar("user_id", Long.class)
+                .addScalar("user_first_name", String.class)
+                .addScalar("user_last_name", String.class)
+                .addScalar("user_email", String.class)
+                .addScalar("start_date", LocalDate.class)
+                .addScalar("end_date", LocalDate.class)
+                .addScalar("reason", String.class)
+                .addScalar("status", String.class)
+                .addScalar("admin_comment", String.class)
+                .addScalar("approved_by_id", Long.class)
+                .addScalar("approved_by_first_name", String.class)
+                .addScalar("approved_by_last_name", String.class)
+                .addScalar("approved_at", LocalDateTime.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("days_count", Integer.class)
+                .addScalar("version", Long.class)
+                .setTupleTransformer((row, aliases) -> new VacationRequestDto(
+                        (Long) row[0], (Long) row[1], (String) row[2], (String) row[3], (String) row[4],
+                        (LocalDate) row[5], (LocalDate) row[6], (String) row[7], VacationStatus.valueOf((String) row[8]),
+                        (String) row[9], (Long) row[10], (String) row[11], (String) row[12], (LocalDateTime) row[13],
+                        (LocalDateTime) row[14], (LocalDateTime) row[15], (Integer) row[16], (Long) row[17]))
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.vacation_system.serurity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Identyfikatory (jti) tokenów dostępowych unieważnionych przed wygaśnięciem, np. przy wylogowaniu.
+ * Wpis żyje tyle, ile najdłużej może być ważny token, więc zbiór nie rośnie ponad liczbę
+ * wylogowań z ostatniego okresu ważności, a sprawdzenie tokenu pozostaje operacją w pamięci.
+ * Zbiór nie ma limitu rozmiaru - usunięcie wpisu przed czasem przywróciłoby ważność tokenu.
+ */
+@Component
+public class AccessTokenRevocations {
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    private Cache<String, Boolean> revoked;
+
+    @PostConstruct
+    void init() {
+        this.revoked = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(expiration))
+                .build();
+    }
+
+    public void revoke(String tokenId) {
+        revoked.put(tokenId, Boolean.TRUE);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.getIfPresent(tokenId) != null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.vacation_system.serurity;
+
+import com.example.vacation_system.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Dane logowania wraz z wczytanym kontem użytkownika. Wynik uwierzytelnienia niesie encję
+ * (odłączoną kopię), więc logowanie i budowa odpowiedzi nie wyszukują użytkownika ponownie.
+ */
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+
+    private final User account;
+
+    public AuthenticatedUser(User account, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(account.getEmail(), password, authorities);
+        this.account = account;
+    }
+
+    public User getAccount() {
+        return account;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        super.eraseCredentials();
+        account.setPassword(null);
+    }
+}
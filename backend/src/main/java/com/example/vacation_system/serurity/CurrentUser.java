@@ -0,0 +1,13 @@
+package com.example.vacation_system.serurity;
+
+import java.lang.annotation.*;
+
+/**
+ * Wstrzykuje do metody kontrolera encję zalogowanego użytkownika.
+ * Encja jest ustalana raz na żądanie i ponownie wykorzystywana.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,69 @@
+package com.example.vacation_system.serurity;
+
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.service.UserDirectory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Rozwiązuje parametry oznaczone {@link CurrentUser}. Użytkownik jest ustalany
+ * z kontekstu bezpieczeństwa raz na żądanie i zapamiętywany jako atrybut żądania.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".USER";
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && User.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        User user = (User) request.getAttribute(CURRENT_USER_ATTRIBUTE);
+        if (user == null) {
+            user = loadCurrentUser();
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, user);
+        }
+        return user;
+    }
+
+    private User loadCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails userDetails)) {
+            throw new AuthenticationCredentialsNotFoundException("Brak zalogowanego użytkownika");
+        }
+
+        // Konto wczytane już przy uwierzytelnianiu
+        if (userDetails instanceof AuthenticatedUser authenticated) {
+            return authenticated.getAccount();
+        }
+
+        // Token z id użytkownika pozwala pominąć wyszukiwanie po emailu
+        Optional<User> user = userDetails instanceof UserPrincipal principal
+                ? userDirectory.findById(principal.getId())
+                : userDirectory.findByEmail(userDetails.getUsername());
+
+        return user.orElseThrow(() -> new UsernameNotFoundException("Użytkownik nie znaleziony"));
+    }
+}
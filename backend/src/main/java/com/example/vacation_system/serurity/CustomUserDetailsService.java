@@ -2,38 +2,60 @@ package com.example.vacation_system.serurity;
 
 import com.example.vacation_system.entity.User;
 import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.service.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    @Autowired
+    private UserDirectory userDirectory;
 
     @Autowired
     private UserRepository userRepository;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        User user = userDirectory.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Użytkownik nie znaleziony: " + email));
 
         if (!user.getActive()) {
             throw new UsernameNotFoundException("Konto użytkownika jest nieaktywne: " + email);
         }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                getAuthorities(user)
-        );
+        return new AuthenticatedUser(user, user.getPassword(), getAuthorities(user));
+    }
+
+    /**
+     * Zapisuje nowy hash hasła po udanym logowaniu, gdy dotychczasowy nie spełnia bieżącej polityki
+     * (inny algorytm lub niższy koszt) - wywoływane przez DaoAuthenticationProvider
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof AuthenticatedUser authenticated) {
+            User account = authenticated.getAccount();
+            account.setPassword(newPassword);
+            userDirectory.evictAfterCommit(account);
+            return new AuthenticatedUser(account, newPassword, user.getAuthorities());
+        }
+        userDirectory.findByEmail(user.getUsername()).ifPresent(userDirectory::evictAfterCommit);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
     }
 
     private Collection<? extends GrantedAuthority> getAuthorities(User user) {
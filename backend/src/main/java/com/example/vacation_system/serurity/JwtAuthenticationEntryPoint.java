@@ -1,37 +1,27 @@
 package com.example.vacation_system.serurity;
 
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.vacation_system.exception.PreparedErrorResponses;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 
 @Component
 public class JwtAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
+    @Autowired
+    private PreparedErrorResponses preparedErrorResponses;
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException authException) throws IOException, ServletException {
-
-        response.setContentType("application/json");
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Unauthorized");
-        errorResponse.put("message", "Brak autoryzacji lub nieprawidłowy token");
-        errorResponse.put("status", 401);
-        errorResponse.put("timestamp", LocalDateTime.now().toString());
-        errorResponse.put("path", request.getRequestURI());
-
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), errorResponse);
+        // Treść serializowana raz przy starcie - najczęstsza odpowiedź przy wygasłych tokenach
+        preparedErrorResponses.unauthorized().writeTo(response);
     }
-}
\ No newline at end of file
+}
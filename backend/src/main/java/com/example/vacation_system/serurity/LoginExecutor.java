@@ -0,0 +1,60 @@
+package com.example.vacation_system.serurity;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Wydzielona pula wątków do weryfikacji haseł przy logowaniu. Liczba wątków i długość kolejki są
+ * ograniczone, więc fala logowań zajmuje co najwyżej część procesorów, a nadmiarowe próby
+ * są od razu odrzucane zamiast czekać w kolejce i blokować wątki żądań.
+ */
+@Component
+public class LoginExecutor {
+
+    // 0 = połowa procesorów (co najmniej jeden wątek)
+    @Value("${vacation.login.threads:0}")
+    private int threads;
+
+    @Value("${vacation.login.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Zleca zadanie logowania
+     *
+     * @throws RejectedExecutionException gdy kolejka jest pełna
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.vacation_system.serurity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limity prób logowania (token bucket) osobno dla adresu IP i dla konta.
+ * Kubełki trzymane są w ograniczonym cache Caffeine (współbieżna mapa z podziałem na segmenty);
+ * nieużywany kubełek wygasa po czasie pełnego napełnienia, więc jego usunięcie nie zmienia limitu.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${vacation.login.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${vacation.login.ip.refill-per-minute:30}")
+    private int ipRefillPerMinute;
+
+    @Value("${vacation.login.account.capacity:10}")
+    private int accountCapacity;
+
+    @Value("${vacation.login.account.refill-per-minute:5}")
+    private int accountRefillPerMinute;
+
+    @Value("${vacation.login.maximum-buckets:100000}")
+    private long maximumBuckets;
+
+    private Cache<String, TokenBucket> ipBuckets;
+
+    private Cache<String, TokenBucket> accountBuckets;
+
+    @PostConstruct
+    void init() {
+        this.ipBuckets = newCache(ipCapacity, ipRefillPerMinute);
+        this.accountBuckets = newCache(accountCapacity, accountRefillPerMinute);
+    }
+
+    private Cache<String, TokenBucket> newCache(int capacity, int refillPerMinute) {
+        Duration fullRefill = Duration.ofMillis(TimeUnit.MINUTES.toMillis(capacity) / refillPerMinute + 1);
+        return Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(fullRefill)
+                .build();
+    }
+
+    /**
+     * Pobiera po jednym żetonie z kubełka adresu IP i kubełka konta
+     *
+     * @return 0, gdy próba jest dozwolona, w przeciwnym razie liczba sekund do ponownej próby
+     */
+    public long tryAcquire(String clientIp, String email) {
+        long now = System.nanoTime();
+        long ipWait = ipBuckets.get(clientIp, key -> new TokenBucket(ipCapacity, ipRefillPerMinute, now))
+                .tryConsume(now);
+        if (ipWait > 0) {
+            return toRetryAfterSeconds(ipWait);
+        }
+
+        String account = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        long accountWait = accountBuckets.get(account,
+                key -> new TokenBucket(accountCapacity, accountRefillPerMinute, now)).tryConsume(now);
+        return accountWait > 0 ? toRetryAfterSeconds(accountWait) : 0;
+    }
+
+    private static long toRetryAfterSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Kubełek napełniany w sposób ciągły - refillPerMinute żetonów na minutę, najwyżej capacity
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * @return 0 po pobraniu żetonu, w przeciwnym razie czas w nanosekundach do pojawienia się żetonu
+         */
+        synchronized long tryConsume(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.vacation_system.serurity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Polityka hashowania haseł: nowe hashe tworzone są wybranym algorytmem (bcrypt lub argon2) z prefiksem
+ * {id}, a koszt dobierany jest przy starcie do docelowego czasu hashowania na bieżącym sprzęcie.
+ * Hashe bez prefiksu (sprzed wprowadzenia polityki) to bcrypt - weryfikowane są nadal,
+ * a po udanym logowaniu zastępowane hashem zgodnym z polityką.
+ */
+@Component
+public class PasswordHashingPolicy {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingPolicy.class);
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int MAX_ARGON2_ITERATIONS = 32;
+
+    // Kilka pomiarów, z których brany jest najkrótszy - odporne na chwilowe obciążenie przy starcie
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    @Value("${vacation.password.algorithm:bcrypt}")
+    private String algorithm;
+
+    // 0 wyłącza kalibrację - używane są parametry minimalne
+    @Value("${vacation.password.target-latency:150ms}")
+    private Duration targetLatency;
+
+    @Value("${vacation.password.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${vacation.password.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${vacation.password.argon2.min-iterations:2}")
+    private int argon2MinIterations;
+
+    /**
+     * Tworzy koder z parametrami skalibrowanymi do docelowego czasu hashowania
+     */
+    public PasswordEncoder createEncoder() {
+        validateAlgorithm();
+        return encoder(BCRYPT.equals(algorithm) ? calibrateBcryptStrength() : bcryptMinStrength,
+                ARGON2.equals(algorithm) ? calibrateArgon2Iterations() : argon2MinIterations);
+    }
+
+    /**
+     * Koder z parametrami minimalnymi dla haseł tymczasowych nadawanych masowo (import CSV).
+     * Hash słabszy od skalibrowanego jest podmieniany przy pierwszym udanym logowaniu.
+     */
+    public PasswordEncoder createMinimumCostEncoder() {
+        validateAlgorithm();
+        return encoder(bcryptMinStrength, argon2MinIterations);
+    }
+
+    private void validateAlgorithm() {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalStateException("Nieobsługiwany algorytm haseł: " + algorithm);
+        }
+    }
+
+    private PasswordEncoder encoder(int bcryptStrength, int argon2Iterations) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put(ARGON2, argon2(argon2Iterations));
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * Koszt bcrypt rośnie dwukrotnie z każdym stopniem - wystarczy jeden pomiar przy koszcie minimalnym
+     */
+    private int calibrateBcryptStrength() {
+        if (targetLatency.isZero()) {
+            return bcryptMinStrength;
+        }
+
+        long nanos = measure(new BCryptPasswordEncoder(bcryptMinStrength));
+        warnIfMinimumTooSlow(nanos);
+        int strength = bcryptMinStrength;
+        while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= targetLatency.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        log.info("Hasła: bcrypt, koszt {} (~{} ms na hash, cel {} ms)",
+                strength, nanos / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    /**
+     * Czas argon2 rośnie liniowo z liczbą iteracji przy stałej pamięci
+     */
+    private int calibrateArgon2Iterations() {
+        if (targetLatency.isZero()) {
+            return argon2MinIterations;
+        }
+
+        long minimumNanos = measure(argon2(argon2MinIterations));
+        warnIfMinimumTooSlow(minimumNanos);
+        long nanosPerIteration = minimumNanos / argon2MinIterations;
+        long affordable = targetLatency.toNanos() / Math.max(1, nanosPerIteration);
+        int iterations = (int) Math.max(argon2MinIterations, Math.min(MAX_ARGON2_ITERATIONS, affordable));
+        log.info("Hasła: argon2, {} KiB, {} iteracji (~{} ms na hash, cel {} ms)", argon2MemoryKib, iterations,
+                nanosPerIteration * iterations / 1_000_000, targetLatency.toMillis());
+        return iterations;
+    }
+
+    // Parametry minimalne są granicą bezpieczeństwa - nie są obniżane nawet na wolnym sprzęcie
+    private void warnIfMinimumTooSlow(long nanos) {
+        if (nanos > targetLatency.toNanos()) {
+            log.warn("Hasła: minimalne parametry {} wymagają ~{} ms na hash, więcej niż cel {} ms",
+                    algorithm, nanos / 1_000_000, targetLatency.toMillis());
+        }
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKib, iterations);
+    }
+
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(CALIBRATION_PASSWORD); // rozgrzewka JIT
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
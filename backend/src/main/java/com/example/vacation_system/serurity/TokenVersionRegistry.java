@@ -0,0 +1,68 @@
+package com.example.vacation_system.serurity;
+
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ograniczony cache aktualnych wersji tokenów użytkowników.
+ * Token z wersją inną niż bieżąca (zmiana roli, dezaktywacja) jest odrzucany.
+ * Brakujący wpis jest doczytywany z bazy jednym zapytaniem po kluczu głównym, poza blokadą cache.
+ * <p>
+ * Wpis usuwany jest od razu tylko w instancji, która zmieniła użytkownika. Pozostałe instancje
+ * mogą akceptować unieważnione tokeny najwyżej przez expire-after-write, dlatego wartość ta
+ * nie powinna przekraczać czasu życia tokenu dostępowego (jwt.expiration).
+ */
+@Component
+public class TokenVersionRegistry {
+
+    // Wartość dla nieaktywnych lub nieistniejących kont - żaden token jej nie ma
+    private static final int REVOKED = -1;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${vacation.token-versions.maximum-size:100000}")
+    private long maximumSize;
+
+    @Value("${vacation.token-versions.expire-after-write:1m}")
+    private Duration expireAfterWrite;
+
+    private Cache<Long, Integer> versions;
+
+    @PostConstruct
+    void init() {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Sprawdza czy wersja z tokenu jest bieżącą wersją aktywnego użytkownika
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.getIfPresent(userId);
+        if (current == null) {
+            // Zapytanie poza blokadą - równoległe odczyty tego samego użytkownika najwyżej je powtórzą
+            current = userRepository.findActiveTokenVersion(userId).orElse(REVOKED);
+            versions.put(userId, current);
+        }
+        return current != REVOKED && current == tokenVersion;
+    }
+
+    /**
+     * Usuwa wpis użytkownika po zatwierdzeniu bieżącej transakcji,
+     * tak aby kolejne żądanie doczytało już zapisaną wersję
+     */
+    public void evictAfterCommit(Long userId) {
+        AfterCommit.run(() -> versions.invalidate(userId));
+    }
+}
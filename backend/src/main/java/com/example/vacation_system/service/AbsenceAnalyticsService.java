@@ -0,0 +1,114 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.CoverageDayDto;
+import com.example.vacation_system.dto.UserPairOverlapDto;
+import com.example.vacation_system.exception.BadRequestException;
+import com.example.vacation_system.repository.UserRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Analizy obsady zespołu liczone na bitmapach nieobecności (AbsenceBitmapIndex)
+ */
+@Service
+public class AbsenceAnalyticsService {
+
+    // Ponad trzy lata w jednym zapytaniu
+    private static final long MAX_ANALYTICS_DAYS = 1100;
+
+    @Autowired
+    private AbsenceBitmapIndex absenceBitmapIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Dni, w których nieobecnych jest więcej niż threshold (ułamek 0-1) zespołu.
+     * Bez podanych użytkowników zespołem są wszyscy aktywni użytkownicy.
+     */
+    public List<CoverageDayDto> findUnderstaffedDays(LocalDate from, LocalDate to, double threshold, List<Long> userIds) {
+        validateRange(from, to);
+        if (threshold < 0 || threshold > 1) {
+            throw new BadRequestException("Próg musi mieścić się w przedziale 0-1");
+        }
+
+        List<Long> team = team(userIds);
+        int[] counts = absenceBitmapIndex.countAbsent(team, from, to);
+        List<CoverageDayDto> days = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > threshold * team.size()) {
+                days.add(new CoverageDayDto(from.plusDays(i), counts[i], team.size()));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Dni okresu, w których nieobecni są jednocześnie wszyscy podani użytkownicy
+     */
+    public List<LocalDate> findSharedAbsenceDays(LocalDate from, LocalDate to, List<Long> userIds) {
+        validateRange(from, to);
+        if (userIds == null || userIds.isEmpty()) {
+            throw new BadRequestException("Podaj co najmniej jednego użytkownika");
+        }
+
+        List<LocalDate> days = new ArrayList<>();
+        absenceBitmapIndex.allAbsent(userIds, from, to)
+                .forEach((int day) -> days.add(AbsenceBitmapIndex.toDate(day)));
+        return days;
+    }
+
+    /**
+     * Pary użytkowników mających w okresie co najmniej minDays wspólnych dni nieobecności,
+     * od najdłużej pokrywających się
+     */
+    public List<UserPairOverlapDto> findOverlappingPairs(LocalDate from, LocalDate to, int minDays, List<Long> userIds) {
+        validateRange(from, to);
+
+        // Tylko użytkownicy z urlopem w okresie - pozostali nie tworzą żadnej pary
+        List<Long> absentUsers = new ArrayList<>();
+        List<RoaringBitmap> absences = new ArrayList<>();
+        for (Long userId : team(userIds)) {
+            RoaringBitmap bitmap = absenceBitmapIndex.absences(userId, from, to);
+            if (bitmap.getCardinality() >= Math.max(minDays, 1)) {
+                absentUsers.add(userId);
+                absences.add(bitmap);
+            }
+        }
+
+        List<UserPairOverlapDto> pairs = new ArrayList<>();
+        for (int i = 0; i < absences.size(); i++) {
+            for (int j = i + 1; j < absences.size(); j++) {
+                int shared = AbsenceBitmapIndex.sharedDays(absences.get(i), absences.get(j));
+                if (shared > 0 && shared >= minDays) {
+                    pairs.add(new UserPairOverlapDto(absentUsers.get(i), absentUsers.get(j), shared));
+                }
+            }
+        }
+        pairs.sort(Comparator.comparingInt(UserPairOverlapDto::getSharedDays).reversed());
+        return pairs;
+    }
+
+    private List<Long> team(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return userRepository.findActiveUserIds();
+        }
+        return userIds.stream().distinct().toList();
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Data początkowa nie może być późniejsza niż końcowa");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_ANALYTICS_DAYS) {
+            throw new BadRequestException("Zakres nie może przekraczać " + MAX_ANALYTICS_DAYS + " dni");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.repository.VacationRequestRepository;
+import com.example.vacation_system.util.AfterCommit;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skompresowane bitmapy dni nieobecności (zatwierdzone urlopy) dla każdego użytkownika.
+ * Bit o numerze epochDay oznacza dzień urlopu. Opublikowane bitmapy nie są modyfikowane -
+ * zmiana buduje nową bitmapę użytkownika i podmienia ją w mapie.
+ */
+@Component
+public class AbsenceBitmapIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AbsenceBitmapIndex.class);
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    // null do czasu pierwszego załadowania
+    private volatile Map<Long, RoaringBitmap> bitmaps;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Przebudowuje bitmapy wszystkich użytkowników na podstawie bazy danych
+     *
+     * @return liczba użytkowników z co najmniej jednym zatwierdzonym urlopem
+     */
+    public synchronized int rebuild() {
+        Map<Long, RoaringBitmap> loaded = new HashMap<>();
+        for (Object[] period : vacationRequestRepository.findApprovedPeriodsWithUser()) {
+            addPeriod(loaded.computeIfAbsent((Long) period[0], id -> new RoaringBitmap()),
+                    (LocalDate) period[1], (LocalDate) period[2]);
+        }
+        loaded.values().forEach(RoaringBitmap::runOptimize);
+
+        this.bitmaps = new ConcurrentHashMap<>(loaded);
+        log.info("Zbudowano bitmapy nieobecności: {} użytkowników", loaded.size());
+        return loaded.size();
+    }
+
+    /**
+     * Po zatwierdzeniu transakcji przelicza bitmapę użytkownika z jego zatwierdzonych wniosków
+     */
+    public void refreshUserAfterCommit(Long userId) {
+        AfterCommit.run(() -> refreshUser(userId));
+    }
+
+    /**
+     * Bitmapa dni nieobecności użytkownika ograniczona do okresu [from, to] (pusta, gdy brak urlopów)
+     */
+    public RoaringBitmap absences(Long userId, LocalDate from, LocalDate to) {
+        RoaringBitmap bitmap = loadedBitmaps().get(userId);
+        if (bitmap == null) {
+            return new RoaringBitmap();
+        }
+        return RoaringBitmap.and(bitmap, window(from, to));
+    }
+
+    /**
+     * Liczba nieobecnych spośród podanych użytkowników w kolejnych dniach okresu [from, to]
+     */
+    public int[] countAbsent(Collection<Long> userIds, LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int[] counts = new int[(int) (to.toEpochDay() - first + 1)];
+        Map<Long, RoaringBitmap> current = loadedBitmaps();
+        RoaringBitmap window = window(from, to);
+
+        for (Long userId : userIds) {
+            RoaringBitmap bitmap = current.get(userId);
+            if (bitmap != null && RoaringBitmap.intersects(bitmap, window)) {
+                RoaringBitmap.and(bitmap, window).forEach((int day) -> counts[day - first]++);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Dni okresu [from, to], w których nieobecni są wszyscy podani użytkownicy
+     */
+    public RoaringBitmap allAbsent(Collection<Long> userIds, LocalDate from, LocalDate to) {
+        Map<Long, RoaringBitmap> current = loadedBitmaps();
+        RoaringBitmap result = window(from, to);
+        for (Long userId : userIds) {
+            RoaringBitmap bitmap = current.get(userId);
+            if (bitmap == null) {
+                return new RoaringBitmap();
+            }
+            result.and(bitmap);
+        }
+        return result;
+    }
+
+    /**
+     * Liczba wspólnych dni nieobecności dwóch bitmap
+     */
+    public static int sharedDays(RoaringBitmap first, RoaringBitmap second) {
+        return RoaringBitmap.andCardinality(first, second);
+    }
+
+    public static LocalDate toDate(int day) {
+        return LocalDate.ofEpochDay(day);
+    }
+
+    private synchronized void refreshUser(Long userId) {
+        if (bitmaps == null) {
+            return;
+        }
+
+        List<Object[]> periods = vacationRequestRepository.findApprovedPeriodsByUserId(userId);
+        if (periods.isEmpty()) {
+            bitmaps.remove(userId);
+            return;
+        }
+
+        RoaringBitmap bitmap = new RoaringBitmap();
+        periods.forEach(period -> addPeriod(bitmap, (LocalDate) period[0], (LocalDate) period[1]));
+        bitmap.runOptimize();
+        bitmaps.put(userId, bitmap);
+    }
+
+    private Map<Long, RoaringBitmap> loadedBitmaps() {
+        Map<Long, RoaringBitmap> current = bitmaps;
+        if (current == null) {
+            rebuild();
+            current = bitmaps;
+        }
+        return current;
+    }
+
+    private static void addPeriod(RoaringBitmap bitmap, LocalDate startDate, LocalDate endDate) {
+        bitmap.add(startDate.toEpochDay(), endDate.toEpochDay() + 1);
+    }
+
+    private static RoaringBitmap window(LocalDate from, LocalDate to) {
+        return RoaringBitmap.bitmapOfRange(from.toEpochDay(), to.toEpochDay() + 1);
+    }
+}
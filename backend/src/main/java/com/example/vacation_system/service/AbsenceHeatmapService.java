@@ -0,0 +1,145 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.config.DatabasePlatform;
+import com.example.vacation_system.entity.DayAbsenceCount;
+import com.example.vacation_system.exception.BadRequestException;
+import com.example.vacation_system.repository.DayAbsenceCountRepository;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Utrzymuje tabelę day_absence_count - liczbę osób na zatwierdzonym urlopie w każdym dniu.
+ * Liczniki zmieniane są w tej samej transakcji co status wniosku.
+ */
+@Service
+@Transactional
+public class AbsenceHeatmapService {
+
+    private static final Logger log = LoggerFactory.getLogger(AbsenceHeatmapService.class);
+
+    // Ponad trzy lata w jednym zapytaniu
+    private static final long MAX_HEATMAP_DAYS = 1100;
+
+    @Autowired
+    private DayAbsenceCountRepository dayAbsenceCountRepository;
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    /**
+     * Zmienia liczniki dni urlopu o delta (+1 przy zatwierdzeniu, -1 przy cofnięciu)
+     */
+    public void applyDelta(LocalDate startDate, LocalDate endDate, int delta) {
+        if (databasePlatform.isPostgres()) {
+            dayAbsenceCountRepository.upsertRange(startDate, endDate, delta);
+            return;
+        }
+
+        // Przenośna ścieżka: zmiana istniejących wierszy jednym zapytaniem, brakujące dni dopisywane
+        dayAbsenceCountRepository.addToRange(startDate, endDate, delta);
+        Set<LocalDate> existing = new HashSet<>(dayAbsenceCountRepository.findDatesBetween(startDate, endDate));
+        List<DayAbsenceCount> missing = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                missing.add(new DayAbsenceCount(day, delta));
+            }
+        }
+        dayAbsenceCountRepository.saveAll(missing);
+    }
+
+    /**
+     * Nanosi zmiany wielu okresów naraz. Tablica różnicowa (zmiana w dniu rozpoczęcia i odwrotna
+     * w dniu po zakończeniu) dzieli je na odcinki o stałej łącznej zmianie - jedno zapytanie na odcinek.
+     */
+    public void applyDifferences(TreeMap<LocalDate, Integer> differences) {
+        int running = 0;
+        LocalDate previous = null;
+        for (Map.Entry<LocalDate, Integer> change : differences.entrySet()) {
+            if (previous != null && running != 0) {
+                applyDelta(previous, change.getKey().minusDays(1), running);
+            }
+            running += change.getValue();
+            previous = change.getKey();
+        }
+    }
+
+    /**
+     * Liczba nieobecnych dla kolejnych dni okresu [from, to] - element i odpowiada dniu from + i
+     */
+    @Transactional(readOnly = true)
+    public int[] getHeatmap(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Data początkowa nie może być późniejsza niż końcowa");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > MAX_HEATMAP_DAYS) {
+            throw new BadRequestException("Zakres nie może przekraczać " + MAX_HEATMAP_DAYS + " dni");
+        }
+
+        int[] counts = new int[(int) days];
+        for (DayAbsenceCount day : dayAbsenceCountRepository.findByAbsenceDateBetweenOrderByAbsenceDate(from, to)) {
+            counts[(int) ChronoUnit.DAYS.between(from, day.getAbsenceDate())] = day.getAbsenceCount();
+        }
+        return counts;
+    }
+
+    /**
+     * Odtwarza całą tabelę z zatwierdzonych wniosków
+     *
+     * @return liczba dni z co najmniej jedną nieobecnością
+     */
+    public int rebuild() {
+        // Tablica różnicowa: +1 w dniu rozpoczęcia, -1 w dniu po zakończeniu
+        TreeMap<LocalDate, Integer> changes = new TreeMap<>();
+        for (Object[] period : vacationRequestRepository.findApprovedPeriods()) {
+            changes.merge((LocalDate) period[0], 1, Integer::sum);
+            changes.merge(((LocalDate) period[1]).plusDays(1), -1, Integer::sum);
+        }
+
+        List<DayAbsenceCount> rows = new ArrayList<>();
+        int running = 0;
+        LocalDate previous = null;
+        for (Map.Entry<LocalDate, Integer> change : changes.entrySet()) {
+            if (previous != null && running > 0) {
+                for (LocalDate day = previous; day.isBefore(change.getKey()); day = day.plusDays(1)) {
+                    rows.add(new DayAbsenceCount(day, running));
+                }
+            }
+            running += change.getValue();
+            previous = change.getKey();
+        }
+
+        dayAbsenceCountRepository.deleteAllInBatch();
+        dayAbsenceCountRepository.saveAll(rows);
+        return rows.size();
+    }
+
+    /**
+     * Wypełnia pustą tabelę przy pierwszym starcie (np. po dodaniu agregatu do istniejącej bazy)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (dayAbsenceCountRepository.count() == 0) {
+            int days = rebuild();
+            log.info("Wypełniono tabelę day_absence_count: {} dni", days);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.VacationRequestDto;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import com.example.vacation_system.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Indeks przedziałowy zatwierdzonych urlopów w pamięci procesu, obsługujący zapytania kalendarza
+ * (zakres dat i konkretny dzień) w czasie O(log n + k) bez odwołań do bazy.
+ * <p>
+ * Indeks obejmuje tylko okno używane przez kalendarz: od początku roku sprzed retention-years lat
+ * w przyszłość. Zapytania sięgające wcześniej trafiają do bazy. Wnioski podzielone są na kubełki
+ * roczne (wniosek na przełomie lat trafia do każdego roku, który obejmuje), a każdy kubełek
+ * to niemutowalne drzewo - odczyty nie blokują się, a zmiana przebudowuje tylko kubełki,
+ * których dotyczy, i podmienia referencję. Zmiany stosowane są dopiero po zatwierdzeniu transakcji
+ * na instancji, która je wykonała - pozostałe instancje widzą je po okresowej przebudowie.
+ */
+@Component
+public class ApprovedVacationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovedVacationIndex.class);
+
+    private static final Comparator<VacationRequestDto> BY_START =
+            Comparator.comparing(VacationRequestDto::getStartDate).thenComparing(VacationRequestDto::getId);
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    @Value("${vacation.calendar-index.retention-years:2}")
+    private int retentionYears;
+
+    // null do czasu pierwszego załadowania - zapytania trafiają wtedy do bazy
+    private volatile Window window;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Okresowa przebudowa - zmiany zatwierdzone na innych instancjach aplikacji trafiają do indeksu
+     * najpóźniej po rebuild-cron (zdarzenia po zatwierdzeniu transakcji działają tylko lokalnie)
+     */
+    @Scheduled(cron = "${vacation.calendar-index.rebuild-cron:0 */5 * * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Przebudowuje cały indeks na podstawie bazy danych
+     *
+     * @return liczba zatwierdzonych urlopów w indeksie
+     */
+    public synchronized int rebuild() {
+        LocalDate windowStart = currentWindowStart();
+        Map<Integer, List<VacationRequestDto>> byYear = new HashMap<>();
+        for (VacationRequestDto vacation : vacationRequestRepository.findApprovedDtosEndingOnOrAfter(windowStart)) {
+            for (int year = firstYear(vacation, windowStart); year <= vacation.getEndDate().getYear(); year++) {
+                byYear.computeIfAbsent(year, key -> new ArrayList<>()).add(vacation);
+            }
+        }
+
+        TreeMap<Integer, Bucket> buckets = new TreeMap<>();
+        byYear.forEach((year, vacations) -> buckets.put(year, Bucket.of(vacations)));
+        this.window = new Window(windowStart, buckets);
+        log.info("Zbudowano indeks zatwierdzonych urlopów od {}: {} wniosków", windowStart, window.size);
+        return window.size;
+    }
+
+    /**
+     * Zatwierdzone urlopy nachodzące na okres [startDate, endDate], o ile indeks jest załadowany
+     * i okres mieści się w jego oknie
+     */
+    public Optional<List<VacationRequestDto>> findInDateRange(LocalDate startDate, LocalDate endDate) {
+        Window current = window;
+        if (current == null || startDate.isBefore(current.start)) {
+            return Optional.empty();
+        }
+
+        long from = startDate.toEpochDay();
+        long to = endDate.toEpochDay();
+        int fromYear = startDate.getYear();
+        List<VacationRequestDto> result = new ArrayList<>();
+        // Wniosek obejmujący kilka lat zgłaszany jest tylko z pierwszego odwiedzonego kubełka
+        current.buckets.subMap(fromYear, true, endDate.getYear(), true).forEach((year, bucket) ->
+                bucket.collect(from, to, vacation -> Math.max(fromYear, vacation.getStartDate().getYear()) == year,
+                        result));
+        return Optional.of(result);
+    }
+
+    /**
+     * Zatwierdzone urlopy obejmujące podany dzień, o ile indeks jest załadowany
+     */
+    public Optional<List<VacationRequestDto>> findOnDate(LocalDate date) {
+        return findInDateRange(date, date);
+    }
+
+    /**
+     * Po zatwierdzeniu transakcji dodaje wniosek do indeksu (status APPROVED) lub go usuwa
+     */
+    public void applyAfterCommit(VacationRequestDto vacation) {
+        applyAllAfterCommit(List.of(vacation));
+    }
+
+    /**
+     * Po zatwierdzeniu transakcji stosuje całą partię zmian jednym przebudowaniem dotkniętych kubełków
+     */
+    public void applyAllAfterCommit(Collection<VacationRequestDto> vacations) {
+        if (vacations.isEmpty()) {
+            return;
+        }
+        List<VacationRequestDto> changes = List.copyOf(vacations);
+        AfterCommit.run(() -> update(changes, approvedOnly(changes)));
+    }
+
+    /**
+     * Po zatwierdzeniu transakcji odświeża wpisy użytkownika (np. po zmianie imienia lub emaila)
+     */
+    public void refreshUserAfterCommit(Long userId) {
+        AfterCommit.run(() -> refreshUser(userId));
+    }
+
+    public int size() {
+        Window current = window;
+        return current != null ? current.size : 0;
+    }
+
+    /**
+     * Przesuwa początek okna na początku roku - usuwa kubełki lat, których kalendarz już nie obejmuje
+     */
+    @Scheduled(cron = "${vacation.calendar-index.trim-cron:0 15 0 * * *}")
+    public synchronized void trimWindow() {
+        Window current = window;
+        LocalDate windowStart = currentWindowStart();
+        if (current == null || !windowStart.isAfter(current.start)) {
+            return;
+        }
+        this.window = new Window(windowStart, new TreeMap<>(current.buckets.tailMap(windowStart.getYear(), true)));
+        log.info("Okno indeksu zatwierdzonych urlopów przesunięte na {}: {} wniosków", windowStart, window.size);
+    }
+
+    private void refreshUser(Long userId) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+
+        Map<Long, VacationRequestDto> previous = new HashMap<>();
+        current.buckets.values().forEach(bucket -> Arrays.stream(bucket.entries)
+                .filter(vacation -> vacation.getUserId().equals(userId))
+                .forEach(vacation -> previous.put(vacation.getId(), vacation)));
+        update(previous.values(), approvedOnly(vacationRequestRepository.findDtosByUserId(userId)));
+    }
+
+    /**
+     * Usuwa z indeksu wnioski removed i dodaje added, przebudowując raz każdy kubełek, którego dotyczą
+     */
+    private synchronized void update(Collection<VacationRequestDto> removed, Collection<VacationRequestDto> added) {
+        Window current = window;
+        if (current == null) {
+            return;
+        }
+
+        Map<Integer, Map<Long, VacationRequestDto>> changed = new HashMap<>();
+        for (VacationRequestDto vacation : removed) {
+            for (int year = firstYear(vacation, current.start); year <= vacation.getEndDate().getYear(); year++) {
+                changedBucket(changed, current, year).remove(vacation.getId());
+            }
+        }
+        for (VacationRequestDto vacation : added) {
+            for (int year = firstYear(vacation, current.start); year <= vacation.getEndDate().getYear(); year++) {
+                changedBucket(changed, current, year).put(vacation.getId(), vacation);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        TreeMap<Integer, Bucket> buckets = new TreeMap<>(current.buckets);
+        changed.forEach((year, entries) -> {
+            if (entries.isEmpty()) {
+                buckets.remove(year);
+            } else {
+                buckets.put(year, Bucket.of(entries.values()));
+            }
+        });
+        this.window = new Window(current.start, buckets);
+    }
+
+    private static Map<Long, VacationRequestDto> changedBucket(Map<Integer, Map<Long, VacationRequestDto>> changed,
+                                                               Window current, int year) {
+        return changed.computeIfAbsent(year, key -> {
+            Map<Long, VacationRequestDto> entries = new LinkedHashMap<>();
+            Bucket bucket = current.buckets.get(key);
+            if (bucket != null) {
+                Arrays.stream(bucket.entries).forEach(vacation -> entries.put(vacation.getId(), vacation));
+            }
+            return entries;
+        });
+    }
+
+    private static List<VacationRequestDto> approvedOnly(Collection<VacationRequestDto> vacations) {
+        return vacations.stream()
+                .filter(vacation -> vacation.getStatus() == VacationStatus.APPROVED)
+                .collect(Collectors.toList());
+    }
+
+    // Pierwszy rok wniosku objęty oknem indeksu
+    private static int firstYear(VacationRequestDto vacation, LocalDate windowStart) {
+        return Math.max(vacation.getStartDate().getYear(), windowStart.getYear());
+    }
+
+    private LocalDate currentWindowStart() {
+        return LocalDate.of(LocalDate.now().getYear() - retentionYears, 1, 1);
+    }
+
+    /**
+     * Niemutowalny stan indeksu: początek okna i kubełki roczne
+     */
+    private static final class Window {
+
+        private final LocalDate start;
+        private final NavigableMap<Integer, Bucket> buckets;
+        private final int size;
+
+        Window(LocalDate start, NavigableMap<Integer, Bucket> buckets) {
+            this.start = start;
+            this.buckets = buckets;
+            // Każdy wniosek liczony raz - w kubełku pierwszego roku objętego oknem
+            int count = 0;
+            for (Map.Entry<Integer, Bucket> entry : buckets.entrySet()) {
+                for (VacationRequestDto vacation : entry.getValue().entries) {
+                    if (firstYear(vacation, start) == entry.getKey()) {
+                        count++;
+                    }
+                }
+            }
+            this.size = count;
+        }
+    }
+
+    /**
+     * Kubełek roczny jako niejawne drzewo przedziałowe: tablica posortowana po dacie rozpoczęcia,
+     * w której korzeniem poddrzewa [lo, hi] jest element środkowy, a maxEnd przechowuje
+     * najpóźniejszy koniec w poddrzewie
+     */
+    private static final class Bucket {
+
+        private final VacationRequestDto[] entries;
+        private final long[] start;
+        private final long[] end;
+        private final long[] maxEnd;
+
+        Bucket(VacationRequestDto[] entries) {
+            this.entries = entries;
+            this.start = new long[entries.length];
+            this.end = new long[entries.length];
+            this.maxEnd = new long[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                start[i] = entries[i].getStartDate().toEpochDay();
+                end[i] = entries[i].getEndDate().toEpochDay();
+            }
+            buildMaxEnd(0, entries.length - 1);
+        }
+
+        static Bucket of(Collection<VacationRequestDto> vacations) {
+            VacationRequestDto[] sorted = vacations.toArray(new VacationRequestDto[0]);
+            Arrays.sort(sorted, BY_START);
+            return new Bucket(sorted);
+        }
+
+        void collect(long from, long to, Predicate<VacationRequestDto> filter, List<VacationRequestDto> result) {
+            collect(0, entries.length - 1, from, to, filter, result);
+        }
+
+        private long buildMaxEnd(int lo, int hi) {
+            if (lo > hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(end[mid], Math.max(buildMaxEnd(lo, mid - 1), buildMaxEnd(mid + 1, hi)));
+            maxEnd[mid] = max;
+            return max;
+        }
+
+        private void collect(int lo, int hi, long from, long to, Predicate<VacationRequestDto> filter,
+                             List<VacationRequestDto> result) {
+            if (lo > hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            // Żaden przedział w poddrzewie nie kończy się w zakresie ani po nim
+            if (maxEnd[mid] < from) {
+                return;
+            }
+
+            collect(lo, mid - 1, from, to, filter, result);
+            // Prawe poddrzewo zaczyna się nie wcześniej niż element środkowy
+            if (start[mid] > to) {
+                return;
+            }
+            if (end[mid] >= from && filter.test(entries[mid])) {
+                result.add(entries[mid]);
+            }
+            collect(mid + 1, hi, from, to, filter, result);
+        }
+    }
+}
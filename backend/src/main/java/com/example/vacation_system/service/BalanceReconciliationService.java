@@ -0,0 +1,89 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.UserUsedDays;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Okresowo porównuje zapisane salda (User.usedVacationDays i reservedVacationDays) z tabelą wniosków
+ * i poprawia ewentualne rozbieżności
+ */
+@Service
+@Transactional
+public class BalanceReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceReconciliationService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Scheduled(cron = "${vacation.balance.reconciliation-cron:0 30 2 * * *}")
+    public void scheduledReconciliation() {
+        reconcile();
+    }
+
+    /**
+     * Uzgadnia salda przy starcie - m.in. rezerwacje oczekujących wniosków złożonych
+     * przed wprowadzeniem kolumny reserved_vacation_days
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Porównuje salda z sumami zatwierdzonych i oczekujących wniosków (dwa zapytania, niezależnie
+     * od liczby użytkowników) i poprawia rozbieżności warunkowo - saldo zmienione w międzyczasie
+     * przez zatwierdzenie lub złożenie wniosku zostanie sprawdzone w kolejnym przebiegu
+     *
+     * @return liczba poprawionych sald
+     */
+    public int reconcile() {
+        // Salda czytamy przed sumami - zmiana salda pomiędzy zapytaniami
+        // sprawi, że warunkowa poprawka go nie nadpisze
+        List<UserUsedDays> storedBalances = userRepository.findAllVacationBalances();
+        Map<Long, UserUsedDays> bookedDays = vacationRequestRepository.sumBookedDaysByUser().stream()
+                .collect(Collectors.toMap(UserUsedDays::getUserId, Function.identity()));
+        int corrected = 0;
+
+        for (UserUsedDays stored : storedBalances) {
+            int storedUsed = stored.getUsedDays().intValue();
+            int storedReserved = stored.getReservedDays().intValue();
+            UserUsedDays booked = bookedDays.get(stored.getUserId());
+            int actualUsed = booked != null ? booked.getUsedDays().intValue() : 0;
+            int actualReserved = booked != null ? booked.getReservedDays().intValue() : 0;
+            if (storedUsed == actualUsed && storedReserved == actualReserved) {
+                continue;
+            }
+
+            if (userRepository.correctVacationBalance(stored.getUserId(),
+                    storedUsed, storedReserved, actualUsed, actualReserved) > 0) {
+                log.warn("Poprawiono saldo użytkownika {}: wykorzystane {} -> {}, zarezerwowane {} -> {} dni",
+                        stored.getUserId(), storedUsed, actualUsed, storedReserved, actualReserved);
+                userDirectory.evictAfterCommit(stored.getUserId());
+                corrected++;
+            }
+        }
+
+        return corrected;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.vacation_system.service;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Kalendarze dni ustawowo wolnych od pracy
+ */
+public enum HolidayCalendar {
+
+    /**
+     * Święta w Polsce (ustawa o dniach wolnych od pracy), w tym święta ruchome liczone od Wielkanocy
+     */
+    PL {
+        @Override
+        public Set<LocalDate> holidays(int year) {
+            Set<LocalDate> holidays = new HashSet<>();
+            holidays.add(LocalDate.of(year, Month.JANUARY, 1));    // Nowy Rok
+            holidays.add(LocalDate.of(year, Month.JANUARY, 6));    // Trzech Króli
+            holidays.add(LocalDate.of(year, Month.MAY, 1));        // Święto Pracy
+            holidays.add(LocalDate.of(year, Month.MAY, 3));        // Święto Konstytucji 3 Maja
+            holidays.add(LocalDate.of(year, Month.AUGUST, 15));    // Wniebowzięcie NMP
+            holidays.add(LocalDate.of(year, Month.NOVEMBER, 1));   // Wszystkich Świętych
+            holidays.add(LocalDate.of(year, Month.NOVEMBER, 11));  // Święto Niepodległości
+            holidays.add(LocalDate.of(year, Month.DECEMBER, 25));  // Boże Narodzenie
+            holidays.add(LocalDate.of(year, Month.DECEMBER, 26));  // drugi dzień Bożego Narodzenia
+            if (year >= 2025) {
+                holidays.add(LocalDate.of(year, Month.DECEMBER, 24)); // Wigilia (od 2025 r.)
+            }
+
+            LocalDate easter = easterSunday(year);
+            holidays.add(easter);
+            holidays.add(easter.plusDays(1));   // Poniedziałek Wielkanocny
+            holidays.add(easter.plusDays(49));  // Zielone Świątki (niedziela)
+            holidays.add(easter.plusDays(60));  // Boże Ciało
+            return holidays;
+        }
+    },
+
+    /**
+     * Brak świąt - liczone są tylko dni weekendu
+     */
+    NONE {
+        @Override
+        public Set<LocalDate> holidays(int year) {
+            return Set.of();
+        }
+    };
+
+    public abstract Set<LocalDate> holidays(int year);
+
+    /**
+     * Niedziela Wielkanocna w kalendarzu gregoriańskim (algorytm Meeusa/Jonesa/Butchera)
+     */
+    static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
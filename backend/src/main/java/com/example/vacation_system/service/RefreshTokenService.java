@@ -0,0 +1,180 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.entity.RefreshToken;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.repository.RefreshTokenRepository;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.serurity.TokenVersionRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Rotacyjne tokeny odświeżające. Token to 256 losowych bitów, więc do jego przechowania wystarcza
+ * szybki skrót SHA-256 - odświeżenie sesji kosztuje jedno wyszukiwanie po kluczu głównym
+ * zamiast weryfikacji hasła.
+ * <p>
+ * Ponowne użycie już zrotowanego tokenu po oknie refresh-reuse-grace oznacza, że token wyciekł:
+ * unieważniane są wtedy wszystkie sesje użytkownika (podbicie wersji tokenów i usunięcie jego
+ * tokenów odświeżających).
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    @Value("${jwt.refresh-reuse-grace:30000}")
+    private Long refreshReuseGrace;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Wydaje nowy token odświeżający dla użytkownika
+     *
+     * @return token w postaci jawnej - zapisywany jest tylko jego skrót
+     */
+    public String issue(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = ENCODER.encodeToString(bytes);
+
+        refreshTokenRepository.save(new RefreshToken(hash(token), user.getId(), user.getTokenVersion(),
+                LocalDateTime.now().plus(Duration.ofMillis(refreshExpiration))));
+        return token;
+    }
+
+    /**
+     * Wykorzystuje token odświeżający i wydaje w jego miejsce nowy
+     *
+     * @return pusty wynik, gdy token nie istnieje, wygasł, został już użyty lub konto
+     * zmieniło się od jego wydania (zmiana roli, dezaktywacja)
+     */
+    public Optional<Rotation> rotate(String token) {
+        String tokenHash = hash(token);
+        Optional<RefreshToken> stored = refreshTokenRepository.findById(tokenHash);
+        if (stored.isEmpty()) {
+            return Optional.empty();
+        }
+
+        RefreshToken refreshToken = stored.get();
+        // Najpierw ważność - odrzucenie nieważnego tokenu nie zużywa go i nie może wywołać unieważnienia sesji
+        if (refreshToken.isExpired()
+                || !tokenVersionRegistry.isCurrent(refreshToken.getUserId(), refreshToken.getTokenVersion())) {
+            return Optional.empty();
+        }
+
+        if (refreshToken.isUsed()) {
+            if (!withinReuseGrace(refreshToken)) {
+                revokeAllSessions(refreshToken.getUserId());
+            }
+            return Optional.empty();
+        }
+
+        // Oznaczenie warunkiem jednorazowości - z dwóch równoległych odświeżeń (np. dwie karty) wygrywa jedno,
+        // a przegrane mieści się w oknie tolerancji i nie jest traktowane jak kradzież
+        if (refreshTokenRepository.markUsed(tokenHash, LocalDateTime.now()) == 0) {
+            return Optional.empty();
+        }
+
+        return userDirectory.findById(refreshToken.getUserId())
+                .map(user -> new Rotation(user, issue(user)));
+    }
+
+    // Ponowne użycie tuż po rotacji to zwykle równoległe odświeżenie w innej karcie, nie wyciek
+    private boolean withinReuseGrace(RefreshToken refreshToken) {
+        return refreshToken.getUsedAt().plus(Duration.ofMillis(refreshReuseGrace)).isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Unieważnia token odświeżający (wylogowanie)
+     */
+    public void revoke(String token) {
+        refreshTokenRepository.deleteByTokenHash(hash(token));
+    }
+
+    /**
+     * Unieważnia wszystkie tokeny dostępowe i odświeżające użytkownika
+     */
+    private void revokeAllSessions(Long userId) {
+        log.warn("Ponowne użycie tokenu odświeżającego użytkownika {} - unieważnienie wszystkich sesji", userId);
+        refreshTokenRepository.deleteByUserId(userId);
+        userRepository.findById(userId).ifPresent(user -> {
+            user.bumpTokenVersion();
+            tokenVersionRegistry.evictAfterCommit(userId);
+            userDirectory.evictAfterCommit(user);
+            userRepository.save(user);
+        });
+    }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 0 3 * * *}")
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (removed > 0) {
+            log.info("Usunięto {} wygasłych tokenów odświeżających", removed);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Brak algorytmu SHA-256", e);
+        }
+    }
+
+    /**
+     * Wynik odświeżenia: aktualny profil użytkownika i nowy token odświeżający
+     */
+    public static final class Rotation {
+
+        private final User user;
+        private final String refreshToken;
+
+        Rotation(User user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public User getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
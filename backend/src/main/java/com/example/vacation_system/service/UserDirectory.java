@@ -0,0 +1,138 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.util.AfterCommit;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ograniczony cache użytkowników w pamięci procesu, indeksowany po emailu i po id.
+ * Przechowuje odłączone kopie encji - wywołujący dostają własną kopię,
+ * więc modyfikacja zwróconego obiektu nie zmienia zawartości cache.
+ */
+@Component
+public class UserDirectory {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${vacation.user-directory.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${vacation.user-directory.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+
+    private Cache<String, User> byEmail;
+
+    private Cache<Long, User> byId;
+
+    @PostConstruct
+    void init() {
+        this.byEmail = newCache();
+        this.byId = newCache();
+    }
+
+    private <K> Cache<K, User> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Pobiera użytkownika po email - z pamięci lub, przy braku, z bazy danych
+     */
+    public Optional<User> findByEmail(String email) {
+        User cached = byEmail.get(email, key -> userRepository.findByEmail(key)
+                .map(this::snapshot)
+                .map(user -> {
+                    byId.put(user.getId(), user);
+                    return user;
+                })
+                .orElse(null));
+        return Optional.ofNullable(cached).map(this::snapshot);
+    }
+
+    /**
+     * Pobiera użytkownika po id - z pamięci lub, przy braku, z bazy danych
+     */
+    public Optional<User> findById(Long id) {
+        User cached = byId.get(id, key -> userRepository.findById(key)
+                .map(this::snapshot)
+                .map(user -> {
+                    byEmail.put(user.getEmail(), user);
+                    return user;
+                })
+                .orElse(null));
+        return Optional.ofNullable(cached).map(this::snapshot);
+    }
+
+    /**
+     * Usuwa użytkownika z cache po zatwierdzeniu bieżącej transakcji
+     */
+    public void evictAfterCommit(Long id, String email) {
+        AfterCommit.run(() -> {
+            byId.invalidate(id);
+            byEmail.invalidate(email);
+        });
+    }
+
+    public void evictAfterCommit(User user) {
+        evictAfterCommit(user.getId(), user.getEmail());
+    }
+
+    /**
+     * Usuwa użytkownika, którego email nie jest znany wywołującemu (rzadka ścieżka - przegląda cache)
+     */
+    public void evictAfterCommit(Long id) {
+        AfterCommit.run(() -> {
+            byId.invalidate(id);
+            byEmail.asMap().values().removeIf(user -> user.getId().equals(id));
+        });
+    }
+
+    /**
+     * Statystyki trafień cache (łącznie dla obu indeksów)
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = byEmail.stats().plus(byId.stats());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", byId.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    private User snapshot(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setRole(user.getRole());
+        copy.setTotalVacationDays(user.getTotalVacationDays());
+        copy.setUsedVacationDays(user.getUsedVacationDays());
+        copy.setReservedVacationDays(user.getReservedVacationDays());
+        copy.setActive(user.getActive());
+        copy.setTokenVersion(user.getTokenVersion());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setUpdatedAt(user.getUpdatedAt());
+        copy.setVersion(user.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.CreateUserRequest;
+import com.example.vacation_system.dto.UserImportReport;
+import com.example.vacation_system.entity.Role;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.exception.BadRequestException;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.serurity.PasswordHashingPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Import pracowników z pliku CSV (nagłówek: firstName,lastName,email,password[,role][,totalVacationDays]).
+ * Wiersze walidowane są tymi samymi regułami co pojedyncze tworzenie użytkownika, zajęte adresy
+ * sprawdzane jednym zapytaniem na partię, hasła hashowane równolegle na ograniczonej puli wątków,
+ * a zapis odbywa się partiami JDBC - każda partia we własnej transakcji.
+ * <p>
+ * Hasła tymczasowe hashowane są z parametrami minimalnymi polityki zamiast skalibrowanych
+ * (~150 ms na hash dałoby ~3000 s CPU dla 20000 wierszy). Przy pierwszym logowaniu hash
+ * podmieniany jest na skalibrowany. Czas importu to nadal ok. liczba wierszy × koszt minimalny
+ * / liczba wątków hash-threads.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("firstname", "lastname", "email", "password");
+
+    // Wiersze zapisywane w jednej transakcji; wielokrotność hibernate.jdbc.batch_size
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    // Liczba adresów w jednym zapytaniu IN
+    private static final int EMAIL_LOOKUP_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingPolicy passwordHashingPolicy;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vacation.import.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${vacation.import.max-rows:20000}")
+    private int maxRows;
+
+    private PasswordEncoder passwordEncoder;
+
+    private ExecutorService hashPool;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        this.passwordEncoder = passwordHashingPolicy.createMinimumCostEncoder();
+
+        // Hashowanie BCrypt obciąża procesor - więcej wątków niż rdzeni nic nie daje
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    /**
+     * Importuje użytkowników z pliku CSV (UTF-8). Błędne wiersze są pomijane i opisane w raporcie.
+     */
+    public UserImportReport importCsv(InputStream input) throws IOException {
+        UserImportReport report = new UserImportReport();
+        List<ImportRow> rows = parse(input, report);
+
+        rejectExistingEmails(rows, report);
+
+        // Wszystkie hashe zlecane od razu - zapis kolejnych partii nakłada się na hashowanie następnych
+        List<CompletableFuture<String>> hashes = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(row.request.getPassword()), hashPool))
+                .collect(Collectors.toList());
+
+        for (int from = 0; from < rows.size(); from += INSERT_CHUNK_SIZE) {
+            int to = Math.min(from + INSERT_CHUNK_SIZE, rows.size());
+            List<ImportRow> chunk = rows.subList(from, to);
+            List<User> users = new ArrayList<>(chunk.size());
+            for (int i = from; i < to; i++) {
+                users.add(toUser(rows.get(i).request, hashes.get(i).join()));
+            }
+            insertChunk(chunk, users, report);
+        }
+
+        report.getErrors().sort(Comparator.comparingInt(UserImportReport.RowError::getLine));
+        log.info("Import użytkowników: {} wierszy, zapisano {}, błędów {}",
+                report.getTotalRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private List<ImportRow> parse(InputStream input, UserImportReport report) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BadRequestException("Plik CSV jest pusty");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = parseLine(stripBom(headerLine));
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new BadRequestException("Brak wymaganej kolumny: " + column);
+            }
+        }
+
+        List<ImportRow> rows = new ArrayList<>();
+        Set<String> emailsInFile = new HashSet<>();
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (report.getTotalRows() >= maxRows) {
+                throw new BadRequestException("Plik może zawierać najwyżej " + maxRows + " wierszy");
+            }
+            report.setTotalRows(report.getTotalRows() + 1);
+
+            List<String> fields = parseLine(line);
+            CreateUserRequest request;
+            try {
+                request = toRequest(fields, columns);
+            } catch (IllegalArgumentException e) {
+                report.addError(lineNumber, field(fields, columns, "email"), e.getMessage());
+                continue;
+            }
+
+            Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                report.addError(lineNumber, request.getEmail(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            } else if (!emailsInFile.add(request.getEmail())) {
+                report.addError(lineNumber, request.getEmail(), "Email powtarza się w pliku");
+            } else {
+                rows.add(new ImportRow(lineNumber, request));
+            }
+        }
+        return rows;
+    }
+
+    private void rejectExistingEmails(List<ImportRow> rows, UserImportReport report) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += EMAIL_LOOKUP_CHUNK_SIZE) {
+            List<String> emails = rows.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK_SIZE, rows.size())).stream()
+                    .map(row -> row.request.getEmail())
+                    .collect(Collectors.toList());
+            existing.addAll(userRepository.findExistingEmails(emails));
+        }
+
+        if (!existing.isEmpty()) {
+            rows.removeIf(row -> {
+                if (existing.contains(row.request.getEmail())) {
+                    report.addError(row.line, row.request.getEmail(), "Użytkownik z tym emailem już istnieje");
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private void insertChunk(List<ImportRow> chunk, List<User> users, UserImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+            report.setImported(report.getImported() + users.size());
+        } catch (DataAccessException e) {
+            // Np. adres dodany w międzyczasie poza importem - odrzucana jest cała partia
+            String message = "Błąd zapisu partii: " + e.getMostSpecificCause().getMessage();
+            chunk.forEach(row -> report.addError(row.line, row.request.getEmail(), message));
+        }
+    }
+
+    private static CreateUserRequest toRequest(List<String> fields, Map<String, Integer> columns) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setFirstName(field(fields, columns, "firstname"));
+        request.setLastName(field(fields, columns, "lastname"));
+        request.setEmail(field(fields, columns, "email"));
+        request.setPassword(field(fields, columns, "password"));
+
+        String role = field(fields, columns, "role");
+        if (role == null) {
+            request.setRole(Role.EMPLOYEE);
+        } else {
+            try {
+                request.setRole(Role.valueOf(role.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Nieznana rola: " + role);
+            }
+        }
+
+        String days = field(fields, columns, "totalvacationdays");
+        if (days != null) {
+            try {
+                request.setTotalVacationDays(Integer.valueOf(days));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Nieprawidłowa liczba dni urlopowych: " + days);
+            }
+        }
+        return request;
+    }
+
+    private static User toUser(CreateUserRequest request, String passwordHash) {
+        User user = new User();
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setEmail(request.getEmail());
+        user.setPassword(passwordHash);
+        user.setRole(request.getRole());
+        user.setTotalVacationDays(request.getTotalVacationDays());
+        user.setUsedVacationDays(0);
+        user.setActive(true);
+        return user;
+    }
+
+    /**
+     * Wartość kolumny (przycięta) lub null, gdy kolumny nie ma albo pole jest puste
+     */
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Dzieli wiersz CSV na pola (RFC 4180 w obrębie jednej linii: pola w cudzysłowach, "" jako cudzysłów)
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+
+    private static final class ImportRow {
+
+        private final int line;
+        private final CreateUserRequest request;
+
+        ImportRow(int line, CreateUserRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.vacation_system.service;
 
 import com.example.vacation_system.dto.CreateUserRequest;
+import com.example.vacation_system.dto.CursorPage;
 import com.example.vacation_system.dto.UserDto;
 import com.example.vacation_system.entity.Role;
 import com.example.vacation_system.entity.User;
+import com.example.vacation_system.exception.ConflictException;
+import com.example.vacation_system.exception.NotFoundException;
 import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.serurity.TokenVersionRegistry;
+import com.example.vacation_system.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +33,15 @@ public class UserService {
     @Autowired
     private VacationCalculationService vacationCalculationService;
 
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private ApprovedVacationIndex approvedVacationIndex;
+
     /**
      * Pobiera wszystkich użytkowników
      */
@@ -36,6 +51,17 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Pobiera stronę użytkowników (stronicowanie kursorem) z opcjonalnymi filtrami
+     */
+    public CursorPage<UserDto> getUserPage(String cursor, Integer size, Role role, Boolean active) {
+        int pageSize = CursorPage.pageSize(size);
+        List<UserDto> rows = userRepository.findPage(role, active, PageCursor.decode(cursor), pageSize + 1).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return CursorPage.of(rows, pageSize, dto -> new PageCursor(dto.getCreatedAt(), dto.getId()));
+    }
+
     /**
      * Pobiera wszystkich aktywnych pracowników
      */
@@ -49,15 +75,22 @@ public class UserService {
      * Pobiera użytkownika po ID
      */
     public Optional<UserDto> getUserById(Long id) {
-        return userRepository.findById(id)
+        return userDirectory.findById(id)
                 .map(this::convertToDto);
     }
 
+    /**
+     * Zwraca dane już pobranego użytkownika (bez ponownego odczytu)
+     */
+    public UserDto getUserDto(User user) {
+        return convertToDto(user);
+    }
+
     /**
      * Pobiera użytkownika po email
      */
     public Optional<User> getUserByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userDirectory.findByEmail(email);
     }
 
     /**
@@ -66,7 +99,7 @@ public class UserService {
     public UserDto createUser(CreateUserRequest request) {
         // Sprawdź czy email już istnieje
         if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Użytkownik z tym emailem już istnieje");
+            throw new ConflictException("Użytkownik z tym emailem już istnieje");
         }
 
         User user = new User();
@@ -80,6 +113,7 @@ public class UserService {
         user.setActive(true);
 
         User savedUser = userRepository.save(user);
+        userDirectory.evictAfterCommit(savedUser);
         return convertToDto(savedUser);
     }
 
@@ -88,12 +122,34 @@ public class UserService {
      */
     public UserDto updateUser(Long id, UserDto userDto) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
+                .orElseThrow(() -> new NotFoundException("Użytkownik nie znaleziony"));
+
+        // Formularz wypełniony na podstawie nieaktualnych danych - konto zmienił w międzyczasie ktoś inny
+        if (userDto.getVersion() != null && !userDto.getVersion().equals(user.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(User.class, id);
+        }
 
         // Sprawdź czy email nie jest zajęty przez innego użytkownika
         if (!user.getEmail().equals(userDto.getEmail()) &&
                 userRepository.existsByEmail(userDto.getEmail())) {
-            throw new RuntimeException("Użytkownik z tym emailem już istnieje");
+            throw new ConflictException("Użytkownik z tym emailem już istnieje");
+        }
+
+        userDirectory.evictAfterCommit(user);
+
+        // Zmiana emaila, roli lub aktywności unieważnia wydane tokeny
+        if (!user.getEmail().equals(userDto.getEmail())
+                || user.getRole() != userDto.getRole()
+                || !user.getActive().equals(userDto.getActive())) {
+            user.bumpTokenVersion();
+            tokenVersionRegistry.evictAfterCommit(user.getId());
+        }
+
+        // Wpisy indeksu kalendarza zawierają imię, nazwisko i email wnioskującego
+        if (!user.getFirstName().equals(userDto.getFirstName())
+                || !user.getLastName().equals(userDto.getLastName())
+                || !user.getEmail().equals(userDto.getEmail())) {
+            approvedVacationIndex.refreshUserAfterCommit(user.getId());
         }
 
         user.setFirstName(userDto.getFirstName());
@@ -103,7 +159,8 @@ public class UserService {
         user.setTotalVacationDays(userDto.getTotalVacationDays());
         user.setActive(userDto.getActive());
 
-        User savedUser = userRepository.save(user);
+        // Wersja sprawdzana przy zapisie, a zwracany DTO niesie już nową wartość
+        User savedUser = userRepository.saveAndFlush(user);
         return convertToDto(savedUser);
     }
 
@@ -112,10 +169,13 @@ public class UserService {
      */
     public UserDto toggleUserStatus(Long id) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
+                .orElseThrow(() -> new NotFoundException("Użytkownik nie znaleziony"));
 
         user.setActive(!user.getActive());
-        User savedUser = userRepository.save(user);
+        user.bumpTokenVersion();
+        tokenVersionRegistry.evictAfterCommit(user.getId());
+        userDirectory.evictAfterCommit(user);
+        User savedUser = userRepository.saveAndFlush(user);
         return convertToDto(savedUser);
     }
 
@@ -124,16 +184,19 @@ public class UserService {
      */
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
+                .orElseThrow(() -> new NotFoundException("Użytkownik nie znaleziony"));
 
         if (user.getRole() == Role.ADMIN) {
             long adminCount = userRepository.countByRole(Role.ADMIN);
             if (adminCount <= 1) {
-                throw new RuntimeException("Nie można usunąć ostatniego administratora");
+                throw new ConflictException("Nie można usunąć ostatniego administratora");
             }
         }
 
         user.setActive(false);
+        user.bumpTokenVersion();
+        tokenVersionRegistry.evictAfterCommit(user.getId());
+        userDirectory.evictAfterCommit(user);
         userRepository.save(user);
     }
 
@@ -142,7 +205,6 @@ public class UserService {
      */
     public void updateUserVacationDays(User user) {
         vacationCalculationService.updateUsedVacationDays(user);
-        userRepository.save(user);
     }
 
     /**
@@ -166,11 +228,12 @@ public class UserService {
         dto.setActive(user.getActive());
         dto.setCreatedAt(user.getCreatedAt());
         dto.setUpdatedAt(user.getUpdatedAt());
+        dto.setVersion(user.getVersion());
 
-        // Oblicz aktualne wykorzystane dni
-        Integer usedDays = vacationCalculationService.calculateUsedVacationDays(user);
-        dto.setUsedVacationDays(usedDays);
-        dto.setAvailableVacationDays(user.getTotalVacationDays() - usedDays);
+        // Saldo utrzymywane przyrostowo - odczyt bez zapytań o wnioski
+        dto.setUsedVacationDays(user.getUsedVacationDays());
+        dto.setReservedVacationDays(user.getReservedVacationDays());
+        dto.setAvailableVacationDays(user.getAvailableVacationDays());
 
         return dto;
     }
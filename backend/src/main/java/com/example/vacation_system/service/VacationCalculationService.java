@@ -4,11 +4,11 @@ package com.example.vacation_system.service;
 import com.example.vacation_system.entity.User;
 import com.example.vacation_system.entity.VacationRequest;
 import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.repository.UserRepository;
 import com.example.vacation_system.repository.VacationRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -17,8 +17,15 @@ public class VacationCalculationService {
     @Autowired
     private VacationRequestRepository vacationRequestRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
     /**
-     * Oblicza liczbę wykorzystanych dni urlopowych dla użytkownika
+     * Oblicza liczbę wykorzystanych dni urlopowych z zatwierdzonych wniosków.
+     * Kosztowne - służy tylko do uzgadniania salda, na co dzień źródłem prawdy jest User.usedVacationDays
      */
     public Integer calculateUsedVacationDays(User user) {
         List<VacationRequest> approvedVacations = vacationRequestRepository
@@ -33,8 +40,7 @@ public class VacationCalculationService {
      * Oblicza liczbę dostępnych dni urlopowych dla użytkownika
      */
     public Integer calculateAvailableVacationDays(User user) {
-        Integer used = calculateUsedVacationDays(user);
-        return user.getTotalVacationDays() - used;
+        return user.getAvailableVacationDays();
     }
 
     /**
@@ -46,10 +52,50 @@ public class VacationCalculationService {
     }
 
     /**
-     * Aktualizuje wykorzystane dni urlopowe użytkownika w bazie danych
+     * Atomowo zmienia wykorzystane dni urlopowe o podaną różnicę
+     * (dodatnią przy zatwierdzeniu, ujemną przy cofnięciu zatwierdzenia)
+     */
+    public void applyUsedVacationDaysDelta(User user, int delta) {
+        userRepository.addUsedVacationDays(user.getId(), delta);
+        userDirectory.evictAfterCommit(user);
+    }
+
+    /**
+     * Atomowo rezerwuje dni pod oczekujący wniosek
+     *
+     * @return false, gdy dostępne saldo (po odjęciu wcześniejszych rezerwacji) jest za małe
+     */
+    public boolean reserveVacationDays(User user, int days) {
+        if (userRepository.reserveVacationDays(user.getId(), days) == 0) {
+            return false;
+        }
+        userDirectory.evictAfterCommit(user);
+        return true;
+    }
+
+    /**
+     * Zwalnia rezerwację odrzuconego lub anulowanego wniosku
+     */
+    public void releaseReservedVacationDays(User user, int days) {
+        userRepository.releaseReservedVacationDays(user.getId(), days);
+        userDirectory.evictAfterCommit(user);
+    }
+
+    /**
+     * Zamienia rezerwację zatwierdzonego wniosku na wykorzystane dni
+     */
+    public void consumeReservedVacationDays(User user, int days) {
+        userRepository.consumeReservedVacationDays(user.getId(), days);
+        userDirectory.evictAfterCommit(user);
+    }
+
+    /**
+     * Przelicza od nowa wykorzystane dni urlopowe użytkownika i zapisuje je w bazie danych
      */
     public void updateUsedVacationDays(User user) {
         Integer usedDays = calculateUsedVacationDays(user);
+        userRepository.setUsedVacationDays(user.getId(), usedDays);
         user.setUsedVacationDays(usedDays);
+        userDirectory.evictAfterCommit(user);
     }
 }
@@ -0,0 +1,249 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Eksport historii wniosków strumieniowany wprost z kursora JDBC do odpowiedzi.
+ * Wiersze nie są gromadzone w pamięci - zużycie sterty nie zależy od liczby wniosków.
+ */
+@Service
+public class VacationExportService {
+
+    public enum Format {
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson");
+
+        private final MediaType contentType;
+        private final String extension;
+
+        Format(MediaType contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        /**
+         * Format z parametru żądania (bez rozróżniania wielkości liter)
+         */
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Nieobsługiwany format eksportu: " + value + " (dozwolone: csv, ndjson)");
+        }
+
+        public MediaType getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Liczba wierszy pobieranych z serwera bazy w jednej porcji
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String[] COLUMNS = {
+            "id", "userId", "firstName", "lastName", "email", "startDate", "endDate", "daysCount",
+            "status", "reason", "adminComment", "approvedByName", "approvedAt", "createdAt"
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+
+        // PostgreSQL używa kursora po stronie serwera tylko przy wyłączonym autocommit
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Zapisuje wnioski do strumienia w wybranym formacie. Filtry o wartości null są pomijane;
+     * zakres dat wybiera wnioski nachodzące na okres [from, to].
+     */
+    public void export(OutputStream outputStream, Format format,
+                       LocalDate from, LocalDate to, VacationStatus status) throws IOException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT vr.id, vr.user_id, u.first_name, u.last_name, u.email, vr.start_date, vr.end_date, vr.days_count, " +
+                "vr.status, vr.reason, vr.admin_comment, a.first_name AS approver_first_name, " +
+                "a.last_name AS approver_last_name, vr.approved_at, vr.created_at " +
+                "FROM vacation_requests vr JOIN users u ON u.id = vr.user_id " +
+                "LEFT JOIN users a ON a.id = vr.approved_by_id WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+
+        if (status != null) {
+            sql.append(" AND vr.status = ?");
+            args.add(status.name());
+        }
+        if (from != null) {
+            sql.append(" AND vr.end_date >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND vr.start_date <= ?");
+            args.add(Date.valueOf(to));
+        }
+        sql.append(" ORDER BY vr.id");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        rowWriter.writeHeader();
+        readOnlyTransaction.executeWithoutResult(tx ->
+                jdbcTemplate.query(sql.toString(), (RowCallbackHandler) resultSet -> {
+                    try {
+                        rowWriter.writeRow(resultSet);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, args.toArray()));
+        writer.flush();
+    }
+
+    private interface RowWriter {
+
+        void writeHeader() throws IOException;
+
+        void writeRow(ResultSet resultSet) throws SQLException, IOException;
+    }
+
+    private static Object[] values(ResultSet rs) throws SQLException {
+        LocalDate startDate = rs.getDate("start_date").toLocalDate();
+        LocalDate endDate = rs.getDate("end_date").toLocalDate();
+        String approverFirstName = rs.getString("approver_first_name");
+        Timestamp approvedAt = rs.getTimestamp("approved_at");
+        // Starsze wnioski bez zapisanej liczby dni roboczych - dni kalendarzowe
+        long daysCount = rs.getObject("days_count") != null
+                ? rs.getInt("days_count")
+                : ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        return new Object[] {
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                startDate.toString(),
+                endDate.toString(),
+                daysCount,
+                rs.getString("status"),
+                rs.getString("reason"),
+                rs.getString("admin_comment"),
+                approverFirstName != null ? approverFirstName + " " + rs.getString("approver_last_name") : null,
+                approvedAt != null ? approvedAt.toLocalDateTime().toString() : null,
+                rs.getTimestamp("created_at").toLocalDateTime().toString()
+        };
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws SQLException, IOException {
+            Object[] values = values(resultSet);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // Jeden generator na cały eksport - strumień zamyka kontener serwletów
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeHeader() {
+            // NDJSON nie ma nagłówka - każda linia jest samodzielnym obiektem
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws SQLException, IOException {
+            Object[] values = values(resultSet);
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                generator.writeFieldName(COLUMNS[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+}
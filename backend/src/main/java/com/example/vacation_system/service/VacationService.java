@@ -1,64 +1,107 @@
 package com.example.vacation_system.service;
 
+import com.example.vacation_system.dto.BulkVacationStatusRequest;
+import com.example.vacation_system.dto.BulkVacationStatusResult;
+import com.example.vacation_system.dto.CalendarMatrixDto;
+import com.example.vacation_system.dto.CursorPage;
 import com.example.vacation_system.dto.VacationRequestDto;
 import com.example.vacation_system.dto.VacationStatusRequest;
 import com.example.vacation_system.entity.User;
 import com.example.vacation_system.entity.VacationRequest;
 import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.exception.BadRequestException;
+import com.example.vacation_system.exception.ConflictException;
+import com.example.vacation_system.exception.ForbiddenException;
+import com.example.vacation_system.exception.NotFoundException;
 import com.example.vacation_system.repository.VacationRequestRepository;
+import com.example.vacation_system.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 @Transactional
 public class VacationService {
 
+    // Ponad rok w jednym widoku macierzy
+    private static final long MAX_MATRIX_DAYS = 400;
+
+    // Jeden wniosek (i podgląd liczby dni roboczych) obejmuje najwyżej rok
+    private static final long MAX_VACATION_DAYS = 366;
+
     @Autowired
     private VacationRequestRepository vacationRequestRepository;
 
     @Autowired
     private VacationCalculationService vacationCalculationService;
 
+    @Autowired
+    private ApprovedVacationIndex approvedVacationIndex;
+
+    @Autowired
+    private AbsenceHeatmapService absenceHeatmapService;
+
+    @Autowired
+    private AbsenceBitmapIndex absenceBitmapIndex;
+
+    @Autowired
+    private WorkingDayCalendar workingDayCalendar;
+
+
     /**
      * Pobiera wszystkie wnioski urlopowe (dla administratora)
      */
     public List<VacationRequestDto> getAllVacationRequests() {
-        return vacationRequestRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return vacationRequestRepository.findAllDtos();
     }
 
     /**
      * Pobiera wnioski urlopowe dla użytkownika
      */
     public List<VacationRequestDto> getUserVacationRequests(User user) {
-        return vacationRequestRepository.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return vacationRequestRepository.findDtosByUserId(user.getId());
+    }
+
+    /**
+     * Pobiera stronę wniosków (stronicowanie kursorem) z opcjonalnymi filtrami
+     */
+    public CursorPage<VacationRequestDto> getVacationRequestPage(String cursor, Integer size, VacationStatus status,
+                                                                 Long userId, LocalDate from, LocalDate to) {
+        int pageSize = CursorPage.pageSize(size);
+        List<VacationRequestDto> rows = vacationRequestRepository.findDtoPage(
+                status, userId, from, to, PageCursor.decode(cursor), pageSize + 1);
+        return CursorPage.of(rows, pageSize, dto -> new PageCursor(dto.getCreatedAt(), dto.getId()));
     }
 
     /**
      * Pobiera wnioski o określonym statusie
      */
     public List<VacationRequestDto> getVacationRequestsByStatus(VacationStatus status) {
-        return vacationRequestRepository.findByStatusOrderByCreatedAtDesc(status).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return vacationRequestRepository.findDtosByStatus(status);
     }
 
     /**
      * Pobiera wniosek po ID
      */
     public Optional<VacationRequestDto> getVacationRequestById(Long id) {
-        return vacationRequestRepository.findById(id)
-                .map(this::convertToDto);
+        return vacationRequestRepository.findDtoById(id);
     }
 
     /**
@@ -68,15 +111,21 @@ public class VacationService {
         // Walidacja dat
         validateVacationDates(requestDto.getStartDate(), requestDto.getEndDate());
 
-        // Sprawdź czy użytkownik ma wystarczająco dni urlopowych
-        long requestedDays = calculateDays(requestDto.getStartDate(), requestDto.getEndDate());
-        if (!vacationCalculationService.hasEnoughVacationDays(user, (int) requestedDays)) {
-            throw new RuntimeException("Niewystarczająca liczba dostępnych dni urlopowych");
+        // Saldo obciążają tylko dni robocze (bez weekendów i świąt)
+        int requestedDays = calculateDays(requestDto.getStartDate(), requestDto.getEndDate());
+        if (requestedDays == 0) {
+            throw new BadRequestException("Wybrany okres nie zawiera dni roboczych");
         }
 
         // Sprawdź kolizje z już zatwierdzonymi urlopami
         if (hasVacationConflict(user, requestDto.getStartDate(), requestDto.getEndDate())) {
-            throw new RuntimeException("Masz już zatwierdzony urlop w tym okresie");
+            throw new ConflictException("Masz już zatwierdzony urlop w tym okresie");
+        }
+
+        // Rezerwacja dni jednym warunkowym UPDATE - równoległe wnioski tego samego użytkownika
+        // nie mogą przekroczyć salda; wycofanie transakcji zwalnia rezerwację
+        if (!vacationCalculationService.reserveVacationDays(user, requestedDays)) {
+            throw new ConflictException("Niewystarczająca liczba dostępnych dni urlopowych");
         }
 
         VacationRequest vacationRequest = new VacationRequest();
@@ -84,6 +133,7 @@ public class VacationService {
         vacationRequest.setStartDate(requestDto.getStartDate());
         vacationRequest.setEndDate(requestDto.getEndDate());
         vacationRequest.setReason(requestDto.getReason());
+        vacationRequest.setDaysCount(requestedDays);
         vacationRequest.setStatus(VacationStatus.PENDING);
 
         VacationRequest savedRequest = vacationRequestRepository.save(vacationRequest);
@@ -95,25 +145,78 @@ public class VacationService {
      */
     public VacationRequestDto updateVacationStatus(Long requestId, VacationStatusRequest statusRequest, User admin) {
         VacationRequest vacationRequest = vacationRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Wniosek urlopowy nie znaleziony"));
+                .orElseThrow(() -> new NotFoundException("Wniosek urlopowy nie znaleziony"));
 
-        if (vacationRequest.getStatus() != VacationStatus.PENDING) {
-            throw new RuntimeException("Można zmieniać status tylko wniosków oczekujących");
+        // Decyzja podjęta na podstawie nieaktualnego stanu wniosku (zmienionego przez innego administratora)
+        if (statusRequest.getVersion() != null && !statusRequest.getVersion().equals(vacationRequest.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(VacationRequest.class, requestId);
         }
 
-        vacationRequest.setStatus(statusRequest.getStatus());
-        vacationRequest.setAdminComment(statusRequest.getAdminComment());
-        vacationRequest.setApprovedBy(admin);
-        vacationRequest.setApprovedAt(LocalDateTime.now());
+        if (!canChangeStatus(vacationRequest.getStatus(), statusRequest.getStatus())) {
+            throw new ConflictException("Można zmieniać status tylko wniosków oczekujących");
+        }
 
-        VacationRequest savedRequest = vacationRequestRepository.save(vacationRequest);
+        DecisionEffects effects = new DecisionEffects();
+        effects.record(vacationRequest, statusRequest.getStatus());
+        applyDecision(vacationRequest, statusRequest.getStatus(), statusRequest.getAdminComment(), admin,
+                LocalDateTime.now());
+
+        // Zapis z kontrolą wersji przed zmianą salda - gdy inny administrator zdążył już zdecydować,
+        // UPDATE nie trafi w wiersz i transakcja zostanie wycofana bez nadpisania jego decyzji
+        VacationRequest savedRequest = vacationRequestRepository.saveAndFlush(vacationRequest);
+        applyDecisionEffects(effects);
+
+        VacationRequestDto result = convertToDto(savedRequest);
+        approvedVacationIndex.applyAfterCommit(result);
+        return result;
+    }
 
-        // Jeśli wniosek został zatwierdzony, zaktualizuj wykorzystane dni użytkownika
-        if (statusRequest.getStatus() == VacationStatus.APPROVED) {
-            vacationCalculationService.updateUsedVacationDays(vacationRequest.getUser());
+    /**
+     * Zmienia status wielu wniosków w jednej transakcji: jedno zapytanie IN, zapis zmian partiami JDBC
+     * i jedna aktualizacja salda na użytkownika. Wnioski nieistniejące lub w niedozwolonym stanie
+     * są pomijane i zgłaszane w wynikach.
+     */
+    public List<BulkVacationStatusResult> updateVacationStatuses(BulkVacationStatusRequest bulkRequest, User admin) {
+        Set<Long> ids = new LinkedHashSet<>(bulkRequest.getIds());
+        VacationStatus newStatus = bulkRequest.getStatus();
+
+        Map<Long, VacationRequest> loaded = new HashMap<>();
+        vacationRequestRepository.findAllWithUserByIdIn(ids).forEach(request -> loaded.put(request.getId(), request));
+
+        Map<Long, BulkVacationStatusResult> results = new LinkedHashMap<>();
+        List<VacationRequest> accepted = new ArrayList<>();
+        for (Long id : ids) {
+            VacationRequest vacationRequest = loaded.get(id);
+            if (vacationRequest == null) {
+                results.put(id, BulkVacationStatusResult.failure(id, "Wniosek urlopowy nie znaleziony"));
+            } else if (!canChangeStatus(vacationRequest.getStatus(), newStatus)) {
+                results.put(id, BulkVacationStatusResult.failure(id,
+                        "Można zmieniać status tylko wniosków oczekujących"));
+            } else {
+                results.put(id, null);
+                accepted.add(vacationRequest);
+            }
         }
 
-        return convertToDto(savedRequest);
+        DecisionEffects effects = new DecisionEffects();
+        LocalDateTime decidedAt = LocalDateTime.now();
+        for (VacationRequest vacationRequest : accepted) {
+            effects.record(vacationRequest, newStatus);
+            applyDecision(vacationRequest, newStatus, bulkRequest.getAdminComment(), admin, decidedAt);
+        }
+
+        // Wszystkie zmiany statusu wysyłane partiami z kontrolą wersji, zanim zmienią się salda
+        vacationRequestRepository.flush();
+        applyDecisionEffects(effects);
+
+        List<VacationRequestDto> decided = new ArrayList<>(accepted.size());
+        for (VacationRequest vacationRequest : accepted) {
+            VacationRequestDto dto = convertToDto(vacationRequest);
+            decided.add(dto);
+            results.put(dto.getId(), BulkVacationStatusResult.success(dto));
+        }
+        approvedVacationIndex.applyAllAfterCommit(decided);
+        return new ArrayList<>(results.values());
     }
 
     /**
@@ -121,47 +224,96 @@ public class VacationService {
      */
     public VacationRequestDto cancelVacationRequest(Long requestId, User user) {
         VacationRequest vacationRequest = vacationRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Wniosek urlopowy nie znaleziony"));
+                .orElseThrow(() -> new NotFoundException("Wniosek urlopowy nie znaleziony"));
 
         if (!vacationRequest.getUser().getId().equals(user.getId())) {
-            throw new RuntimeException("Możesz anulować tylko własne wnioski");
+            throw new ForbiddenException("Możesz anulować tylko własne wnioski");
         }
 
         if (vacationRequest.getStatus() != VacationStatus.PENDING) {
-            throw new RuntimeException("Można anulować tylko wnioski oczekujące na zatwierdzenie");
+            throw new ConflictException("Można anulować tylko wnioski oczekujące na zatwierdzenie");
         }
 
         vacationRequest.setStatus(VacationStatus.CANCELLED);
-        VacationRequest savedRequest = vacationRequestRepository.save(vacationRequest);
+        VacationRequest savedRequest = vacationRequestRepository.saveAndFlush(vacationRequest);
+        vacationCalculationService.releaseReservedVacationDays(
+                vacationRequest.getUser(), (int) vacationRequest.getDaysCount());
 
-        return convertToDto(savedRequest);
+        VacationRequestDto result = convertToDto(savedRequest);
+        approvedVacationIndex.applyAfterCommit(result);
+        return result;
     }
 
     /**
-     * Pobiera zatwierdzone urlopy w kalendarzu (zajęte dni)
+     * Pobiera zatwierdzone urlopy w kalendarzu (zajęte dni) - z indeksu w pamięci,
+     * a przed jego załadowaniem z bazy. Bez własnej transakcji, by trafienie w indeks nie pobierało połączenia.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<VacationRequestDto> getApprovedVacationsInDateRange(LocalDate startDate, LocalDate endDate) {
-        return vacationRequestRepository.findApprovedVacationsInDateRange(startDate, endDate).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return approvedVacationIndex.findInDateRange(startDate, endDate)
+                .orElseGet(() -> vacationRequestRepository.findApprovedDtosOverlapping(startDate, endDate));
     }
 
     /**
      * Pobiera zatwierdzone urlopy na konkretny dzień
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<VacationRequestDto> getApprovedVacationsOnDate(LocalDate date) {
-        return vacationRequestRepository.findApprovedVacationsOnDate(date).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return approvedVacationIndex.findOnDate(date)
+                .orElseGet(() -> vacationRequestRepository.findApprovedDtosOverlapping(date, date));
+    }
+
+    /**
+     * Kalendarz zespołu jako macierz: każdy nieobecny użytkownik raz, z seriami dni urlopu
+     * przyciętymi do okresu i scalonymi, gdy wnioski się stykają lub nakładają
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CalendarMatrixDto getCalendarMatrix(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Data początkowa nie może być późniejsza niż końcowa");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_MATRIX_DAYS) {
+            throw new BadRequestException("Zakres nie może przekraczać " + MAX_MATRIX_DAYS + " dni");
+        }
+
+        Map<Long, List<VacationRequestDto>> byUser = new LinkedHashMap<>();
+        getApprovedVacationsInDateRange(from, to).stream()
+                .sorted(Comparator.comparing(VacationRequestDto::getUserFullName)
+                        .thenComparing(VacationRequestDto::getUserId)
+                        .thenComparing(VacationRequestDto::getStartDate))
+                .forEach(vacation -> byUser.computeIfAbsent(vacation.getUserId(), id -> new ArrayList<>())
+                        .add(vacation));
+
+        List<CalendarMatrixDto.UserRuns> users = new ArrayList<>(byUser.size());
+        for (List<VacationRequestDto> vacations : byUser.values()) {
+            int[] runs = new int[vacations.size() * 2];
+            int length = 0;
+            for (VacationRequestDto vacation : vacations) {
+                LocalDate clippedStart = vacation.getStartDate().isBefore(from) ? from : vacation.getStartDate();
+                LocalDate clippedEnd = vacation.getEndDate().isAfter(to) ? to : vacation.getEndDate();
+                int start = (int) ChronoUnit.DAYS.between(from, clippedStart);
+                int end = (int) ChronoUnit.DAYS.between(from, clippedEnd);
+                int previousEnd = length > 0 ? runs[length - 2] + runs[length - 1] - 1 : Integer.MIN_VALUE;
+                if (start <= previousEnd + 1) {
+                    runs[length - 1] = Math.max(previousEnd, end) - runs[length - 2] + 1;
+                } else {
+                    runs[length++] = start;
+                    runs[length++] = end - start + 1;
+                }
+            }
+            VacationRequestDto first = vacations.get(0);
+            users.add(new CalendarMatrixDto.UserRuns(
+                    first.getUserId(), first.getUserFullName(), Arrays.copyOf(runs, length)));
+        }
+
+        return new CalendarMatrixDto(from, to, users);
     }
 
     /**
      * Sprawdza czy jest kolizja z innymi urlopami
      */
     private boolean hasVacationConflict(User user, LocalDate startDate, LocalDate endDate) {
-        List<VacationRequest> conflicts = vacationRequestRepository
-                .findUserApprovedVacationsInDateRange(user, startDate, endDate);
-        return !conflicts.isEmpty();
+        return vacationRequestRepository.existsUserApprovedVacationInDateRange(user.getId(), startDate, endDate);
     }
 
     /**
@@ -169,23 +321,119 @@ public class VacationService {
      */
     private void validateVacationDates(LocalDate startDate, LocalDate endDate) {
         if (startDate == null || endDate == null) {
-            throw new RuntimeException("Daty rozpoczęcia i zakończenia są wymagane");
+            throw new BadRequestException("Daty rozpoczęcia i zakończenia są wymagane");
         }
 
         if (startDate.isAfter(endDate)) {
-            throw new RuntimeException("Data rozpoczęcia nie może być późniejsza niż data zakończenia");
+            throw new BadRequestException("Data rozpoczęcia nie może być późniejsza niż data zakończenia");
         }
 
         if (startDate.isBefore(LocalDate.now())) {
-            throw new RuntimeException("Nie można składać wniosków na przeszłe daty");
+            throw new BadRequestException("Nie można składać wniosków na przeszłe daty");
+        }
+
+        validateVacationSpan(startDate, endDate);
+    }
+
+    private static void validateVacationSpan(LocalDate startDate, LocalDate endDate) {
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_VACATION_DAYS) {
+            throw new BadRequestException("Okres urlopu nie może przekraczać " + MAX_VACATION_DAYS + " dni");
+        }
+    }
+
+    /**
+     * Oczekujący wniosek można zatwierdzić lub odrzucić, a zatwierdzony jedynie cofnąć (anulować)
+     */
+    private static boolean canChangeStatus(VacationStatus previousStatus, VacationStatus newStatus) {
+        return previousStatus == VacationStatus.PENDING || isRevocation(previousStatus, newStatus);
+    }
+
+    private static boolean isRevocation(VacationStatus previousStatus, VacationStatus newStatus) {
+        return previousStatus == VacationStatus.APPROVED && newStatus == VacationStatus.CANCELLED;
+    }
+
+    private static void applyDecision(VacationRequest vacationRequest, VacationStatus newStatus, String adminComment,
+                                      User admin, LocalDateTime decidedAt) {
+        vacationRequest.setStatus(newStatus);
+        vacationRequest.setAdminComment(adminComment);
+        vacationRequest.setApprovedBy(admin);
+        vacationRequest.setApprovedAt(decidedAt);
+    }
+
+    /**
+     * Saldo użytkownika zmieniane jest o różnicę dni, bez przeliczania całej historii:
+     * zatwierdzenie przenosi rezerwację do wykorzystanych dni, odrzucenie ją zwalnia,
+     * a cofnięcie zatwierdzenia zwraca wykorzystane dni
+     */
+    private void applyDecisionEffects(DecisionEffects effects) {
+        for (BalanceDelta delta : effects.balances.values()) {
+            if (delta.consumed > 0) {
+                vacationCalculationService.consumeReservedVacationDays(delta.user, delta.consumed);
+            }
+            if (delta.released > 0) {
+                vacationCalculationService.releaseReservedVacationDays(delta.user, delta.released);
+            }
+            if (delta.returned > 0) {
+                vacationCalculationService.applyUsedVacationDaysDelta(delta.user, -delta.returned);
+            }
+        }
+
+        absenceHeatmapService.applyDifferences(effects.absenceDifferences);
+        effects.calendarUsers.forEach(absenceBitmapIndex::refreshUserAfterCommit);
+    }
+
+    /**
+     * Skutki decyzji zebrane przed zapisem - salda sumowane per użytkownik
+     */
+    private static final class DecisionEffects {
+
+        private final Map<Long, BalanceDelta> balances = new LinkedHashMap<>();
+        // Tablica różnicowa zmian liczby nieobecnych: +1/-1 w dniu rozpoczęcia, odwrotnie w dniu po zakończeniu
+        private final TreeMap<LocalDate, Integer> absenceDifferences = new TreeMap<>();
+        private final Set<Long> calendarUsers = new LinkedHashSet<>();
+
+        void record(VacationRequest vacationRequest, VacationStatus newStatus) {
+            VacationStatus previousStatus = vacationRequest.getStatus();
+            User user = vacationRequest.getUser();
+            BalanceDelta delta = balances.computeIfAbsent(user.getId(), id -> new BalanceDelta(user));
+            int days = (int) vacationRequest.getDaysCount();
+
+            if (newStatus == VacationStatus.APPROVED) {
+                delta.consumed += days;
+                recordAbsence(vacationRequest, 1);
+            } else if (previousStatus == VacationStatus.PENDING && newStatus != VacationStatus.PENDING) {
+                delta.released += days;
+            } else if (isRevocation(previousStatus, newStatus)) {
+                delta.returned += days;
+                recordAbsence(vacationRequest, -1);
+            }
+        }
+
+        private void recordAbsence(VacationRequest vacationRequest, int delta) {
+            absenceDifferences.merge(vacationRequest.getStartDate(), delta, Integer::sum);
+            absenceDifferences.merge(vacationRequest.getEndDate().plusDays(1), -delta, Integer::sum);
+            calendarUsers.add(vacationRequest.getUser().getId());
+        }
+    }
+
+    private static final class BalanceDelta {
+
+        private final User user;
+        private int consumed;
+        private int released;
+        private int returned;
+
+        BalanceDelta(User user) {
+            this.user = user;
         }
     }
 
     /**
-     * Oblicza liczbę dni urlopu
+     * Oblicza liczbę dni urlopu (dni robocze)
      */
-    private long calculateDays(LocalDate startDate, LocalDate endDate) {
-        return java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
+    public int calculateDays(LocalDate startDate, LocalDate endDate) {
+        validateVacationSpan(startDate, endDate);
+        return workingDayCalendar.countWorkingDays(startDate, endDate);
     }
 
     /**
@@ -212,6 +460,7 @@ public class VacationService {
         dto.setCreatedAt(vacation.getCreatedAt());
         dto.setUpdatedAt(vacation.getUpdatedAt());
         dto.setDaysCount(vacation.getDaysCount());
+        dto.setVersion(vacation.getVersion());
 
         return dto;
     }
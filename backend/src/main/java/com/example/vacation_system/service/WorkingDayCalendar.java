@@ -0,0 +1,104 @@
+package com.example.vacation_system.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liczenie dni roboczych na podstawie tablic sum prefiksowych budowanych raz na rok i kalendarz świąt.
+ * prefix[i] to liczba dni roboczych wśród pierwszych i dni roku, więc liczba dni roboczych
+ * w dowolnym okresie to różnica dwóch elementów tablicy.
+ */
+@Component
+public class WorkingDayCalendar {
+
+    // Lata budowane przy starcie wokół bieżącego roku; pozostałe przy pierwszym użyciu
+    private static final int PRECOMPUTED_YEARS_AROUND_NOW = 2;
+
+    // Zapamiętywane są tylko lata bliskie bieżącemu - odległe liczone na bieżąco, aby cache był ograniczony
+    private static final int CACHED_YEARS_AROUND_NOW = 10;
+
+    @Value("${vacation.working-days.weekend:SATURDAY,SUNDAY}")
+    private List<DayOfWeek> weekendDays;
+
+    @Value("${vacation.working-days.holiday-calendar:PL}")
+    private HolidayCalendar defaultCalendar;
+
+    private Set<DayOfWeek> weekend;
+
+    private final Map<HolidayCalendar, Map<Integer, int[]>> prefixSums = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        this.weekend = weekendDays.isEmpty() ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(weekendDays);
+        int currentYear = Year.now().getValue();
+        int lastYear = currentYear + PRECOMPUTED_YEARS_AROUND_NOW;
+        for (int year = currentYear - PRECOMPUTED_YEARS_AROUND_NOW; year <= lastYear; year++) {
+            prefixSum(defaultCalendar, year);
+        }
+    }
+
+    /**
+     * Liczba dni roboczych w okresie [startDate, endDate] (obie daty włącznie) w domyślnym kalendarzu
+     */
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate) {
+        return countWorkingDays(startDate, endDate, defaultCalendar);
+    }
+
+    /**
+     * Liczba dni roboczych w okresie [startDate, endDate] w podanym kalendarzu świąt
+     */
+    public int countWorkingDays(LocalDate startDate, LocalDate endDate, HolidayCalendar calendar) {
+        if (startDate.isAfter(endDate)) {
+            return 0;
+        }
+
+        if (startDate.getYear() == endDate.getYear()) {
+            int[] prefix = prefixSum(calendar, startDate.getYear());
+            return prefix[endDate.getDayOfYear()] - prefix[startDate.getDayOfYear() - 1];
+        }
+
+        int[] first = prefixSum(calendar, startDate.getYear());
+        int[] last = prefixSum(calendar, endDate.getYear());
+        int days = first[first.length - 1] - first[startDate.getDayOfYear() - 1] + last[endDate.getDayOfYear()];
+        for (int year = startDate.getYear() + 1; year < endDate.getYear(); year++) {
+            int[] prefix = prefixSum(calendar, year);
+            days += prefix[prefix.length - 1];
+        }
+        return days;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        return countWorkingDays(date, date) == 1;
+    }
+
+    private int[] prefixSum(HolidayCalendar calendar, int year) {
+        if (Math.abs(year - Year.now().getValue()) > CACHED_YEARS_AROUND_NOW) {
+            return buildPrefixSum(calendar, year);
+        }
+        return prefixSums.computeIfAbsent(calendar, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(year, key -> buildPrefixSum(calendar, year));
+    }
+
+    private int[] buildPrefixSum(HolidayCalendar calendar, int year) {
+        Set<LocalDate> holidays = calendar.holidays(year);
+        int length = Year.of(year).length();
+        int[] prefix = new int[length + 1];
+
+        LocalDate day = LocalDate.ofYearDay(year, 1);
+        for (int i = 1; i <= length; i++, day = day.plusDays(1)) {
+            boolean working = !weekend.contains(day.getDayOfWeek()) && !holidays.contains(day);
+            prefix[i] = prefix[i - 1] + (working ? 1 : 0);
+        }
+        return prefix;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.vacation_system.serurity;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porównuje koszt weryfikacji tokenu na jedno żądanie: dawna ścieżka (trzy parsowania,
+ * klucz HMAC budowany przy każdym) kontra jednokrotna weryfikacja z gotowym parserem.
+ *
+ * Uruchomienie: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.example.vacation_system.serurity.JwtUtilBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET =
+            "mySecretKey123456789012345678901234567890mySecretKey123456789012345678901234567890";
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        jwtUtil.init();
+
+        userDetails = new User("jan.kowalski@company.com", "",
+                List.of(new SimpleGrantedAuthority("ROLE_EMPLOYEE")));
+        token = jwtUtil.generateToken(userDetails, "EMPLOYEE");
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        // Odwzorowanie poprzedniego przebiegu filtra: getUsernameFromToken + validateToken
+        String username = legacyClaims(token).getSubject();
+        boolean sameUser = legacyClaims(token).getSubject().equals(username);
+        Date expiration = legacyClaims(token).getExpiration();
+        return sameUser && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public boolean singlePassVerification() {
+        Claims claims = jwtUtil.parseVerifiedClaims(token);
+        return jwtUtil.validateClaims(claims, userDetails);
+    }
+
+    private Claims legacyClaims(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.VacationRequestDto;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApprovedVacationIndexTest {
+
+    private static final int YEAR = LocalDate.now().getYear();
+
+    private final VacationRequestRepository vacationRequestRepository = mock(VacationRequestRepository.class);
+
+    private final List<VacationRequestDto> approved = new ArrayList<>();
+
+    private ApprovedVacationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(vacationRequestRepository.findApprovedDtosEndingOnOrAfter(any())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(0);
+            return approved.stream().filter(vacation -> !vacation.getEndDate().isBefore(from)).toList();
+        });
+
+        index = new ApprovedVacationIndex();
+        ReflectionTestUtils.setField(index, "vacationRequestRepository", vacationRequestRepository);
+        ReflectionTestUtils.setField(index, "retentionYears", 2);
+    }
+
+    @Test
+    void vacationCrossingYearBoundaryIsReportedOnce() {
+        approved.add(vacation(1L, date(YEAR - 1, 12, 28), date(YEAR, 1, 3)));
+        approved.add(vacation(2L, date(YEAR, 1, 2), date(YEAR, 1, 2)));
+        index.rebuild();
+
+        assertThat(ids(index.findInDateRange(date(YEAR - 1, 12, 1), date(YEAR, 12, 31)))).containsExactly(1L, 2L);
+        assertThat(ids(index.findInDateRange(date(YEAR, 1, 1), date(YEAR, 1, 31)))).containsExactly(1L, 2L);
+        assertThat(ids(index.findOnDate(date(YEAR - 1, 12, 31)))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void queryStartingBeforeWindowFallsBackToDatabase() {
+        approved.add(vacation(1L, date(YEAR - 3, 12, 20), date(YEAR - 2, 1, 5)));
+        index.rebuild();
+
+        // Okno zaczyna się 1 stycznia sprzed dwóch lat - wcześniejsze zapytania obsługuje baza
+        assertThat(index.findInDateRange(date(YEAR - 3, 12, 31), date(YEAR - 2, 1, 2))).isEmpty();
+        assertThat(ids(index.findInDateRange(date(YEAR - 2, 1, 1), date(YEAR - 2, 1, 2)))).containsExactly(1L);
+    }
+
+    @Test
+    void appliedChangesUpdateOnlyIndexedVacations() {
+        approved.add(vacation(1L, date(YEAR, 3, 2), date(YEAR, 3, 6)));
+        index.rebuild();
+
+        VacationRequestDto cancelled = vacation(1L, date(YEAR, 3, 2), date(YEAR, 3, 6));
+        cancelled.setStatus(VacationStatus.CANCELLED);
+        index.applyAllAfterCommit(List.of(cancelled, vacation(2L, date(YEAR, 12, 30), date(YEAR + 1, 1, 2))));
+
+        assertThat(ids(index.findInDateRange(date(YEAR, 1, 1), date(YEAR + 1, 12, 31)))).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void trimmingDropsYearsOutsideWindow() {
+        approved.add(vacation(1L, date(YEAR - 2, 6, 1), date(YEAR - 2, 6, 5)));
+        approved.add(vacation(2L, date(YEAR - 2, 12, 30), date(YEAR - 1, 1, 2)));
+        index.rebuild();
+        assertThat(index.size()).isEqualTo(2);
+
+        ReflectionTestUtils.setField(index, "retentionYears", 1);
+        index.trimWindow();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.findInDateRange(date(YEAR - 2, 6, 1), date(YEAR - 2, 6, 5))).isEmpty();
+        assertThat(ids(index.findOnDate(date(YEAR - 1, 1, 1)))).containsExactly(2L);
+    }
+
+    private static VacationRequestDto vacation(Long id, LocalDate startDate, LocalDate endDate) {
+        VacationRequestDto vacation = new VacationRequestDto(startDate, endDate, null);
+        vacation.setId(id);
+        vacation.setUserId(id);
+        vacation.setStatus(VacationStatus.APPROVED);
+        return vacation;
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        return LocalDate.of(year, month, day);
+    }
+
+    private static List<Long> ids(Optional<List<VacationRequestDto>> vacations) {
+        assertThat(vacations).isPresent();
+        return vacations.get().stream().map(VacationRequestDto::getId).toList();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.vacation_system.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HolidayCalendarTest {
+
+    @Test
+    void easterSundayMatchesKnownDates() {
+        assertThat(HolidayCalendar.easterSunday(2008)).isEqualTo(LocalDate.of(2008, 3, 23));
+        assertThat(HolidayCalendar.easterSunday(2024)).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(HolidayCalendar.easterSunday(2025)).isEqualTo(LocalDate.of(2025, 4, 20));
+        assertThat(HolidayCalendar.easterSunday(2026)).isEqualTo(LocalDate.of(2026, 4, 5));
+        assertThat(HolidayCalendar.easterSunday(2038)).isEqualTo(LocalDate.of(2038, 4, 25));
+    }
+
+    @Test
+    void polishCalendarContainsMovableHolidays() {
+        assertThat(HolidayCalendar.PL.holidays(2025)).contains(
+                LocalDate.of(2025, 4, 20),   // Wielkanoc
+                LocalDate.of(2025, 4, 21),   // Poniedziałek Wielkanocny
+                LocalDate.of(2025, 6, 8),    // Zielone Świątki
+                LocalDate.of(2025, 6, 19));  // Boże Ciało
+        assertThat(HolidayCalendar.PL.holidays(2024)).contains(
+                LocalDate.of(2024, 4, 1),
+                LocalDate.of(2024, 5, 19),
+                LocalDate.of(2024, 5, 30));
+    }
+
+    @Test
+    void christmasEveIsHolidayFrom2025() {
+        assertThat(HolidayCalendar.PL.holidays(2024)).hasSize(13).doesNotContain(LocalDate.of(2024, 12, 24));
+        assertThat(HolidayCalendar.PL.holidays(2025)).hasSize(14).contains(LocalDate.of(2025, 12, 24));
+    }
+
+    @Test
+    void emptyCalendarHasNoHolidays() {
+        assertThat(HolidayCalendar.NONE.holidays(2025)).isEmpty();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.UserDto;
+import com.example.vacation_system.entity.Role;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.entity.VacationRequest;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceQueryCountTest {
+
+    private static final int EMPLOYEES = 50;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BalanceReconciliationService balanceReconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        vacationRequestRepository.deleteAll();
+        userRepository.deleteAll(userRepository.findByRole(Role.EMPLOYEE));
+
+        LocalDate start = LocalDate.of(2030, 1, 7);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            User user = new User("Jan", "Kowalski" + i, "jan" + i + "@company.com", "hash", Role.EMPLOYEE);
+            user.setUsedVacationDays(3);
+            user = userRepository.save(user);
+
+            VacationRequest vacation = new VacationRequest(user, start, start.plusDays(2), null);
+            vacation.setStatus(VacationStatus.APPROVED);
+            vacationRequestRepository.save(vacation);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingUsersIsBoundedAtTwoStatements() {
+        List<UserDto> users = userService.getAllUsers();
+
+        assertThat(users).hasSizeGreaterThanOrEqualTo(EMPLOYEES);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void listingActiveEmployeesIsBoundedAtTwoStatements() {
+        List<UserDto> employees = userService.getActiveEmployees();
+
+        assertThat(employees).hasSize(EMPLOYEES);
+        assertThat(employees).allMatch(employee -> employee.getUsedVacationDays() == 3);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void reconciliationUsesGroupedAggregateAndFixesDrift() {
+        User drifted = userRepository.findByEmail("jan0@company.com").orElseThrow();
+        transactionTemplate.executeWithoutResult(status -> userRepository.setUsedVacationDays(drifted.getId(), 10));
+        statistics.clear();
+
+        int corrected = balanceReconciliationService.reconcile();
+
+        // Odczyt sald + zapytanie grupujące + jedna poprawka
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(corrected).isEqualTo(1);
+        assertThat(userRepository.findByEmail("jan0@company.com").orElseThrow().getUsedVacationDays()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.vacation_system.service;
+
+import com.example.vacation_system.dto.VacationRequestDto;
+import com.example.vacation_system.entity.Role;
+import com.example.vacation_system.entity.User;
+import com.example.vacation_system.entity.VacationStatus;
+import com.example.vacation_system.repository.UserRepository;
+import com.example.vacation_system.repository.VacationRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class VacationReservationConcurrencyTest {
+
+    private static final int THREADS = 12;
+    private static final int TOTAL_DAYS = 10;
+
+    // Kolejne tygodnie od 13.01 do 04.04.2031 nie zawierają świąt - każdy wątek składa wniosek
+    // na inny tydzień (5 dni roboczych)
+    private static final LocalDate FIRST_MONDAY = LocalDate.of(2031, 1, 13);
+
+    @Autowired
+    private VacationService vacationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VacationRequestRepository vacationRequestRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        vacationRequestRepository.deleteAll();
+        userRepository.findByEmail("reservation@company.com").ifPresent(userRepository::delete);
+
+        User employee = new User("Jan", "Nowak", "reservation@company.com", "hash", Role.EMPLOYEE);
+        employee.setTotalVacationDays(TOTAL_DAYS);
+        user = userRepository.save(employee);
+    }
+
+    @Test
+    void concurrentSubmissionsNeverOverbookBalance() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        Queue<String> rejections = new ConcurrentLinkedQueue<>();
+        List<Future<?>> submissions = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            LocalDate monday = FIRST_MONDAY.plusWeeks(i);
+            submissions.add(executor.submit(() -> {
+                start.await();
+                try {
+                    vacationService.createVacationRequest(user,
+                            new VacationRequestDto(monday, monday.plusDays(4), null));
+                    accepted.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejections.add(e.getMessage());
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> submission : submissions) {
+            submission.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(accepted.get()).isEqualTo(TOTAL_DAYS / 5);
+        assertThat(rejections).hasSize(THREADS - TOTAL_DAYS / 5)
+                .allMatch(message -> message.equals("Niewystarczająca liczba dostępnych dni urlopowych"));
+        assertThat(stored.getReservedVacationDays()).isEqualTo(TOTAL_DAYS);
+        assertThat(stored.getAvailableVacationDays()).isZero();
+        assertThat(vacationRequestRepository.findByUserAndStatus(stored, VacationStatus.PENDING))
+                .hasSize(accepted.get());
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.vacation_system.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WorkingDayCalendarTest {
+
+    private WorkingDayCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new WorkingDayCalendar();
+        ReflectionTestUtils.setField(calendar, "weekendDays", List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+        ReflectionTestUtils.setField(calendar, "defaultCalendar", HolidayCalendar.PL);
+        calendar.init();
+    }
+
+    @Test
+    void sameYearRangeSkipsWeekendsAndEasterMonday() {
+        // Dwa tygodnie robocze z Poniedziałkiem Wielkanocnym
+        assertThat(calendar.countWorkingDays(LocalDate.of(2025, 4, 14), LocalDate.of(2025, 4, 25))).isEqualTo(9);
+        // Tydzień z Bożym Ciałem (czwartek)
+        assertThat(calendar.countWorkingDays(LocalDate.of(2025, 6, 16), LocalDate.of(2025, 6, 20))).isEqualTo(4);
+    }
+
+    @Test
+    void rangeAcrossYearBoundarySumsBothYears() {
+        // 23.12.2024 - 10.01.2025: święta 25-26.12, 1.01 i 6.01 (Wigilia wolna dopiero od 2025 r.)
+        assertThat(calendar.countWorkingDays(LocalDate.of(2024, 12, 23), LocalDate.of(2025, 1, 10))).isEqualTo(11);
+    }
+
+    @Test
+    void multiYearRangeMatchesDayByDayCount() {
+        LocalDate start = LocalDate.of(2023, 11, 15);
+        LocalDate end = LocalDate.of(2026, 2, 3);
+        assertThat(calendar.countWorkingDays(start, end)).isEqualTo(countDayByDay(start, end));
+    }
+
+    @Test
+    void distantYearsAreCountedWithoutCaching() {
+        LocalDate start = LocalDate.of(1900, 12, 20);
+        LocalDate end = LocalDate.of(1901, 1, 10);
+        assertThat(calendar.countWorkingDays(start, end)).isEqualTo(countDayByDay(start, end));
+    }
+
+    @Test
+    void weekendOnlyRangeHasNoWorkingDays() {
+        assertThat(calendar.countWorkingDays(LocalDate.of(2025, 4, 5), LocalDate.of(2025, 4, 6))).isZero();
+        // Sobota i Niedziela Wielkanocna
+        assertThat(calendar.countWorkingDays(LocalDate.of(2025, 4, 19), LocalDate.of(2025, 4, 20))).isZero();
+        assertThat(calendar.isWorkingDay(LocalDate.of(2025, 4, 22))).isTrue();
+    }
+
+    @Test
+    void reversedRangeHasNoWorkingDays() {
+        assertThat(calendar.countWorkingDays(LocalDate.of(2025, 4, 10), LocalDate.of(2025, 4, 9))).isZero();
+    }
+
+    private static int countDayByDay(LocalDate start, LocalDate end) {
+        int days = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            Set<LocalDate> holidays = HolidayCalendar.PL.holidays(day.getYear());
+            boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+            if (!weekend && !holidays.contains(day)) {
+                days++;
+            }
+        }
+        return days;
+    }
+}
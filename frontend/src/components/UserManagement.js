@@ -385,7 +385,8 @@ const EditUserForm = ({ user, onClose, onSuccess }) => {
     email: user.email,
     role: user.role,
     totalVacationDays: user.totalVacationDays,
-    active: user.active
+    active: user.active,
+    version: user.version
   });
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
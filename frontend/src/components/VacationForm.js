@@ -1,4 +1,4 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useAuth } from '../context/AuthContext';
 import api from '../services/api';
 
@@ -11,6 +11,7 @@ const VacationForm = ({ onClose, onSuccess }) => {
   });
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState('');
+  const [workingDays, setWorkingDays] = useState(0);
 
   const handleInputChange = (e) => {
     const { name, value } = e.target;
@@ -20,16 +21,28 @@ const VacationForm = ({ onClose, onSuccess }) => {
     }));
   };
 
-  const calculateDays = () => {
-    if (formData.startDate && formData.endDate) {
-      const start = new Date(formData.startDate);
-      const end = new Date(formData.endDate);
-      const diffTime = Math.abs(end - start);
-      const diffDays = Math.ceil(diffTime / (1000 * 60 * 60 * 24)) + 1;
-      return diffDays;
+  // Liczbę dni roboczych (bez weekendów i świąt) liczy serwer
+  useEffect(() => {
+    if (!formData.startDate || !formData.endDate || formData.startDate > formData.endDate) {
+      setWorkingDays(0);
+      return;
     }
-    return 0;
-  };
+
+    let cancelled = false;
+    api.get(`/vacations/working-days?startDate=${formData.startDate}&endDate=${formData.endDate}`)
+      .then(response => {
+        if (!cancelled) {
+          setWorkingDays(response.data.workingDays);
+        }
+      })
+      .catch(error => console.error('Błąd liczenia dni roboczych:', error));
+
+    return () => {
+      cancelled = true;
+    };
+  }, [formData.startDate, formData.endDate]);
+
+  const calculateDays = () => workingDays;
 
   const handleSubmit = async (e) => {
     e.preventDefault();
@@ -124,7 +137,7 @@ const VacationForm = ({ onClose, onSuccess }) => {
             {formData.startDate && formData.endDate && (
               <div className="bg-blue-50 p-3 rounded-md">
                 <p className="text-sm text-blue-700">
-                  <strong>Liczba dni:</strong> {calculateDays()} dni
+                  <strong>Liczba dni roboczych:</strong> {calculateDays()} dni
                 </p>
                 <p className="text-sm text-blue-700">
                   <strong>Dostępne dni:</strong> {user.availableVacationDays} dni
@@ -26,18 +26,25 @@ const VacationList = ({ refreshTrigger }) => {
     }
   };
 
-  const handleStatusUpdate = async (vacationId, status, comment = '') => {
+  const handleStatusUpdate = async (vacation, status, comment = '') => {
     try {
-      await api.put(`/vacations/${vacationId}/status`, {
+      await api.put(`/vacations/${vacation.id}/status`, {
         status,
-        adminComment: comment
+        adminComment: comment,
+        version: vacation.version
       });
       
       // Odśwież listę
       fetchVacations();
     } catch (error) {
       console.error('Błąd aktualizacji statusu:', error);
-      alert('Błąd aktualizacji statusu wniosku');
+      if (error.response?.status === 409) {
+        // Inny administrator zdążył już zdecydować - pokaż aktualny stan
+        alert(error.response.data.message);
+        fetchVacations();
+      } else {
+        alert('Błąd aktualizacji statusu wniosku');
+      }
     }
   };
 
@@ -182,7 +189,7 @@ const VacationList = ({ refreshTrigger }) => {
                       {isAdmin && vacation.status === 'PENDING' && (
                         <>
                           <button
-                            onClick={() => handleStatusUpdate(vacation.id, 'APPROVED')}
+                            onClick={() => handleStatusUpdate(vacation, 'APPROVED')}
                             className="text-green-600 hover:text-green-900"
                           >
                             Zatwierdź
@@ -191,7 +198,7 @@ const VacationList = ({ refreshTrigger }) => {
                             onClick={() => {
                               const comment = prompt('Komentarz (opcjonalnie):');
                               if (comment !== null) {
-                                handleStatusUpdate(vacation.id, 'REJECTED', comment);
+                                handleStatusUpdate(vacation, 'REJECTED', comment);
                               }
                             }}
                             className="text-red-600 hover:text-red-900"
@@ -41,6 +41,7 @@ export const AuthProvider = ({ children }) => {
     } catch (error) {
       console.error('Token validation failed:', error);
       localStorage.removeItem('token');
+      localStorage.removeItem('refreshToken');
     } finally {
       setLoading(false);
     }
@@ -53,6 +54,7 @@ export const AuthProvider = ({ children }) => {
       
       setUser(userData);
       localStorage.setItem('token', userData.token);
+      localStorage.setItem('refreshToken', userData.refreshToken);
       
       return { success: true, data: userData };
     } catch (error) {
@@ -65,8 +67,15 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Unieważnij sesję na serwerze - wylogowanie lokalne nie czeka na odpowiedź
+    const token = localStorage.getItem('token');
+    const refreshToken = localStorage.getItem('refreshToken');
+    api.post('/auth/logout', { refreshToken }, {
+      headers: { Authorization: `Bearer ${token}` }
+    }).catch(() => {});
     setUser(null);
     localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
   };
 
   const value = {
@@ -20,16 +20,47 @@ api.interceptors.request.use(
   }
 );
 
+// Jedno wspólne odświeżenie sesji dla wszystkich zapytań, które równocześnie dostały 401
+let refreshPromise = null;
+
+const refreshSession = () => {
+  if (!refreshPromise) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshPromise = (refreshToken
+      ? axios.post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+          .then((response) => {
+            localStorage.setItem('token', response.data.token);
+            localStorage.setItem('refreshToken', response.data.refreshToken);
+            return response.data.token;
+          })
+      : Promise.reject(new Error('Brak tokenu odświeżającego'))
+    ).finally(() => {
+      refreshPromise = null;
+    });
+  }
+  return refreshPromise;
+};
+
 // Response interceptor - obsługuje błędy autoryzacji
 api.interceptors.response.use(
   (response) => {
     return response;
   },
-  (error) => {
-    if (error.response?.status === 401) {
-      // Token wygasł lub jest nieprawidłowy
-      localStorage.removeItem('token');
-      window.location.href = '/login';
+  async (error) => {
+    const config = error.config;
+    if (error.response?.status === 401 && config && !config._retry
+        && !config.url?.startsWith('/auth/login')) {
+      // Token dostępowy wygasł - odśwież sesję i ponów zapytanie
+      config._retry = true;
+      try {
+        await refreshSession();
+        return api(config);
+      } catch (refreshError) {
+        // Sesja wygasła lub została unieważniona
+        localStorage.removeItem('token');
+        localStorage.removeItem('refreshToken');
+        window.location.href = '/login';
+      }
     }
     return Promise.reject(error);
   }